@@ -5,9 +5,15 @@
 
 package org.jdesktop.beansbinding;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
 /**
  * An implementation of {@code Binding} that automatically syncs the source
- * and target by refreshing and saving according to one of three update
+ * and target by refreshing and saving according to one of four update
  * strategies. The update strategy is specified for an {@code AutoBinding}
  * on creation, and is one of:
  * <p>
@@ -15,6 +21,7 @@ package org.jdesktop.beansbinding;
  *     <li>{@code AutoBinding.UpdateStrategy.READ_ONCE}</li>
  *     <li>{@code AutoBinding.UpdateStrategy.READ}</li>
  *     <li>{@code AutoBinding.UpdateStrategy.READ_WRITE}</li>
+ *     <li>{@code AutoBinding.UpdateStrategy.READ_ON_DEMAND}</li>
  * </ul>
  * <p>
  * <a name="STRATEGY_BEHAVIOR">The behavior</a> of {@code AutoBinding} for each
@@ -30,7 +37,8 @@ package org.jdesktop.beansbinding;
  *     <p>
  *     <b>Details:</b><br>
  *     At bind time, tries to sync the target from the source, by calling
- *     {@code refreshAndNotify}. No further automatic syncing is done.
+ *     {@code refreshAndNotify}. No further automatic syncing is done, and
+ *     the binding doesn't listen to the source or target for changes.
  *   </td>
  * </tr>
  * <tr><td colspan="3"><br></td></tr>
@@ -87,7 +95,64 @@ package org.jdesktop.beansbinding;
  *     save failure.
  *   </td>
  * </tr>
+ * <tr><td colspan="3"><br></td></tr>
+ * <tr valign="baseline">
+ *   <td><b><font size="+1">{@code READ_ON_DEMAND}</font></b></td>
+ *   <td>&nbsp;&nbsp;&nbsp;</td>
+ *   <td>
+ *     <b>Summary:</b><br>
+ *     Never syncs automatically.
+ *     <p>
+ *     <b>Details:</b><br>
+ *     Does nothing at bind time, and doesn't listen to the source or
+ *     target for changes. The target is only synced from the source when
+ *     the binding is explicitly refreshed, for instance by calling
+ *     {@code refreshAndNotify}.
+ *   </td>
+ * </tr>
  * </table>
+ * <p>
+ * An {@code AutoBinding} with the {@code READ} or {@code READ_WRITE} strategy
+ * can be given a {@link BindingScheduler}, either directly or through the
+ * {@code BindingGroup} it belongs to. Source value changes are then not
+ * acted upon immediately; instead the binding is marked dirty and the
+ * procedure described above for a source value change is run once, with the
+ * latest source value, when the scheduler is next flushed. All other changes
+ * are still handled immediately. The same applies while the binding's
+ * group is in a {@link BindingGroup#beginBatch batch}, regardless of the
+ * binding's own scheduler.
+ * <p>
+ * The bindings flushed together by a scheduler, or at the end of a batch,
+ * are synced in a single propagation wave. Any other {@code AutoBinding}
+ * whose source changes as a result is not synced at once, but queued and
+ * synced once the wave reaches it. Queued bindings are synced in dependency
+ * order: a binding whose source object, or any bean its source property
+ * reads through, is the target object of another {@code AutoBinding} in the
+ * wave or in the same group as one, is synced after that binding. A chain of
+ * bindings is thus synced once per flush, and a binding that depends on
+ * several others, as at the bottom of a diamond, is synced just once, after
+ * all of them. Source value changes that aren't scheduled are synced at
+ * once, as they are reported.
+ * <p>
+ * Propagation can also be rate limited. With a {@link #setThrottleDelay throttle
+ * delay}, a source value change is acted upon at once, but further source
+ * value changes are then acted upon at most once per delay, with the latest
+ * value. With a {@link #setDebounceDelay debounce delay}, a {@code READ_WRITE}
+ * binding acts upon a target value change only once the target value has
+ * stopped changing for the delay. Delays are tracked by a {@link TimerWheel},
+ * which can be shared by any number of bindings.
+ * <p>
+ * A {@code READ_WRITE} binding with a {@link #setValidationExecutor validation
+ * executor} runs its {@code Validator} on that executor when saving in
+ * response to a target value change, so that slow validators don't hold up
+ * the thread the change was reported on. The target value is read and
+ * converted immediately. The source is only updated once the value has
+ * passed validation, and a failure is reported through
+ * {@code BindingListener.syncFailed} as usual. A validation still in
+ * progress when the target changes again, or when the binding is synced
+ * from the source, is cancelled and its result ignored. The result is acted
+ * upon on the binding's {@link #setDispatcher dispatch thread} if it has a
+ * {@code BindingDispatcher}, and otherwise on the thread that validated.
  *
  * @param <SS> the type of source object
  * @param <SV> the type of value that the source property represents
@@ -99,6 +164,19 @@ package org.jdesktop.beansbinding;
 public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
 
     private UpdateStrategy strategy;
+    private BindingScheduler scheduler;
+    private BindingScheduler pendingScheduler;
+    private TimerWheel timerWheel;
+    private int throttleDelay;
+    private int debounceDelay;
+    // guards the timeouts and throttlePending, which the wheel's tasks
+    // read and write on the wheel's thread
+    private final Object timerLock = new Object();
+    private TimerWheel.Timeout throttleTimeout;
+    private boolean throttlePending;
+    private TimerWheel.Timeout debounceTimeout;
+    private Executor validationExecutor;
+    private volatile FutureTask<Validator<?>.Result> pendingValidation;
 
     /**
      * An enumeration representing the possible update strategies of an
@@ -124,7 +202,14 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
          * An update strategy where the {@code AutoBinding} tries to keep both the
          * source and target in sync with each other.
          */
-        READ_WRITE
+        READ_WRITE,
+
+        /**
+         * An update strategy where the {@code AutoBinding} never syncs on its
+         * own, and doesn't listen for changes; the target is synced from the
+         * source only when the binding is explicitly refreshed.
+         */
+        READ_ON_DEMAND
     }
 
     /**
@@ -158,6 +243,361 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         return strategy;
     }
 
+    /**
+     * Sets the {@code BindingScheduler} used to coalesce syncing in response
+     * to source value changes, which may be {@code null}. When {@code null},
+     * the scheduler of the {@code BindingGroup} that the binding belongs to is
+     * used, if any; otherwise source changes are acted upon immediately.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "scheduler"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param scheduler the {@code BindingScheduler}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     * @see BindingGroup#setScheduler
+     */
+    public final void setScheduler(BindingScheduler scheduler) {
+        throwIfBound();
+        BindingScheduler old = this.scheduler;
+        this.scheduler = scheduler;
+        firePropertyChange("scheduler", old, scheduler);
+    }
+
+    /**
+     * Returns the {@code AutoBinding's BindingScheduler}, which may be {@code null}.
+     *
+     * @return the {@code BindingScheduler}, or {@code null}
+     * @see #setScheduler
+     */
+    public final BindingScheduler getScheduler() {
+        return scheduler;
+    }
+
+    private final boolean isBatched() {
+        for (BindingGroup group : getGroups()) {
+            if (group.getBatchScheduler() != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private final BindingScheduler resolveScheduler() {
+        List<BindingGroup> groups = getGroups();
+
+        for (BindingGroup group : groups) {
+            BindingScheduler batch = group.getBatchScheduler();
+            if (batch != null) {
+                return batch;
+            }
+        }
+
+        if (scheduler != null) {
+            return scheduler;
+        }
+
+        // the first group that has one, in the order the binding joined
+        for (BindingGroup group : groups) {
+            if (group.getScheduler() != null) {
+                return group.getScheduler();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Sets the minimum interval, in milliseconds, between two syncs made in
+     * response to source value changes. The first change is acted upon
+     * immediately; changes arriving within the interval are coalesced and
+     * acted upon, with the latest value, when it expires. A value of {@code 0},
+     * the default, disables throttling.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "throttleDelay"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param throttleDelay the delay in milliseconds, or {@code 0}
+     * @throws IllegalArgumentException if {@code throttleDelay} is negative
+     * @throws IllegalStateException if the {@code Binding} is bound
+     */
+    public final void setThrottleDelay(int throttleDelay) {
+        throwIfBound();
+        if (throttleDelay < 0) {
+            throw new IllegalArgumentException("delay must be non-negative");
+        }
+        int old = this.throttleDelay;
+        this.throttleDelay = throttleDelay;
+        firePropertyChange("throttleDelay", old, throttleDelay);
+    }
+
+    /**
+     * Returns the throttle delay in milliseconds.
+     *
+     * @return the throttle delay, or {@code 0} if not throttled
+     * @see #setThrottleDelay
+     */
+    public final int getThrottleDelay() {
+        return throttleDelay;
+    }
+
+    /**
+     * Sets the period, in milliseconds, that the target value of a
+     * {@code READ_WRITE} binding must remain unchanged before the change is
+     * saved to the source. Each further target value change restarts the
+     * period. A value of {@code 0}, the default, disables debouncing.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "debounceDelay"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param debounceDelay the delay in milliseconds, or {@code 0}
+     * @throws IllegalArgumentException if {@code debounceDelay} is negative
+     * @throws IllegalStateException if the {@code Binding} is bound
+     */
+    public final void setDebounceDelay(int debounceDelay) {
+        throwIfBound();
+        if (debounceDelay < 0) {
+            throw new IllegalArgumentException("delay must be non-negative");
+        }
+        int old = this.debounceDelay;
+        this.debounceDelay = debounceDelay;
+        firePropertyChange("debounceDelay", old, debounceDelay);
+    }
+
+    /**
+     * Returns the debounce delay in milliseconds.
+     *
+     * @return the debounce delay, or {@code 0} if not debounced
+     * @see #setDebounceDelay
+     */
+    public final int getDebounceDelay() {
+        return debounceDelay;
+    }
+
+    /**
+     * Sets the {@code TimerWheel} that tracks the throttle and debounce delays,
+     * which may be {@code null} to use the {@link TimerWheel#getDefault default}
+     * wheel, or {@code SwingBindings.getEventQueueTimerWheel} if the target
+     * object is an AWT component. A delayed sync happens on the thread that
+     * the wheel runs its tasks on, so a binding with a Swing target given a
+     * wheel of its own should use one that runs them on the event dispatch
+     * thread.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "timerWheel"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param timerWheel the {@code TimerWheel}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     */
+    public final void setTimerWheel(TimerWheel timerWheel) {
+        throwIfBound();
+        TimerWheel old = this.timerWheel;
+        this.timerWheel = timerWheel;
+        firePropertyChange("timerWheel", old, timerWheel);
+    }
+
+    /**
+     * Returns the {@code AutoBinding's TimerWheel}, which may be {@code null}.
+     *
+     * @return the {@code TimerWheel}, or {@code null}
+     * @see #setTimerWheel
+     */
+    public final TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    /**
+     * Sets the {@code Executor} that the {@code Validator} is run on when
+     * saving in response to a target value change, which may be {@code null}
+     * to validate synchronously. See the class level documentation for details.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "validationExecutor"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param validationExecutor the {@code Executor}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     */
+    public final void setValidationExecutor(Executor validationExecutor) {
+        throwIfBound();
+        Executor old = this.validationExecutor;
+        this.validationExecutor = validationExecutor;
+        firePropertyChange("validationExecutor", old, validationExecutor);
+    }
+
+    /**
+     * Returns the {@code Executor} used for validation, which may be {@code null}.
+     *
+     * @return the {@code Executor}, or {@code null}
+     * @see #setValidationExecutor
+     */
+    public final Executor getValidationExecutor() {
+        return validationExecutor;
+    }
+
+    private final TimerWheel resolveTimerWheel() {
+        return timerWheel == null ? TimerWheel.getDefault(getTargetObject()) : timerWheel;
+    }
+
+    /**
+     * Runs when a throttle or debounce delay expires. Each scheduling gets
+     * its own task, so that a task that was superseded or cancelled just as
+     * it was about to run can tell.
+     */
+    private final class DelayTask implements Runnable {
+        private final boolean throttle;
+        private TimerWheel.Timeout timeout;
+
+        DelayTask(boolean throttle) {
+            this.throttle = throttle;
+        }
+
+        public void run() {
+            boolean act;
+
+            synchronized (timerLock) {
+                if (throttle) {
+                    if (throttleTimeout != timeout) {
+                        return;
+                    }
+
+                    throttleTimeout = null;
+                    act = throttlePending;
+                    throttlePending = false;
+                } else {
+                    if (debounceTimeout != timeout) {
+                        return;
+                    }
+
+                    debounceTimeout = null;
+                    act = true;
+                }
+            }
+
+            if (!act) {
+                return;
+            }
+
+            // the wheel's thread is not the binding's dispatch thread
+            BindingDispatcher dispatcher = getDispatcher();
+            if (dispatcher != null && !dispatcher.isDispatchThread()) {
+                dispatcher.invokeLater(new Runnable() {
+                    public void run() {
+                        expired();
+                    }
+                });
+            } else {
+                expired();
+            }
+        }
+
+        private void expired() {
+            if (!isBound()) {
+                return;
+            }
+
+            if (throttle) {
+                sourceValueChanged();
+            } else {
+                saveFromTarget();
+            }
+        }
+    }
+
+    // called with timerLock held
+    private final TimerWheel.Timeout scheduleDelay(boolean throttle, int delay) {
+        DelayTask task = new DelayTask(throttle);
+        task.timeout = resolveTimerWheel().schedule(task, delay);
+        return task.timeout;
+    }
+
+    private final void sourceValueChanged() {
+        if (throttleDelay > 0) {
+            synchronized (timerLock) {
+                if (throttleTimeout != null) {
+                    throttlePending = true;
+                    return;
+                }
+
+                throttleTimeout = scheduleDelay(true, throttleDelay);
+            }
+        }
+
+        if (pendingScheduler != null) {
+            // already waiting for the next flush
+            return;
+        }
+
+        BindingScheduler sched = resolveScheduler();
+        if (sched == null) {
+            if (!Propagation.defer(this)) {
+                syncFromSource();
+            }
+        } else if (!isBatched() && Propagation.defer(this)) {
+            // a wave is under way, and will reach this binding in order
+        } else {
+            pendingScheduler = sched;
+            sched.schedule(this);
+        }
+    }
+
+    /**
+     * Syncs from the source on behalf of a propagation wave, which has
+     * ordered this binding after any binding it depends on.
+     */
+    final void propagate() {
+        pendingScheduler = null;
+
+        if (isBound()) {
+            syncFromSource();
+        }
+    }
+
+    /**
+     * Takes this binding back from a propagation wave that ended, with an
+     * exception, before reaching it. The binding is scheduled again if it
+     * has a scheduler, and synced now otherwise.
+     */
+    final void resume() {
+        pendingScheduler = null;
+
+        if (!isBound()) {
+            return;
+        }
+
+        BindingScheduler sched = resolveScheduler();
+        if (sched == null) {
+            syncFromSource();
+        } else {
+            pendingScheduler = sched;
+            sched.schedule(this);
+        }
+    }
+
+    private final void syncFromSource() {
+        cancelValidation();
+
+        if (strategy == UpdateStrategy.READ) {
+            refreshAndNotify();
+        } else {
+            tryRefreshThenSave();
+        }
+    }
+
     private final void tryRefreshThenSave() {
         SyncFailure refreshFailure = refresh();
         if (refreshFailure == null) {
@@ -176,7 +616,13 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         SyncFailure saveFailure = save();
         if (saveFailure == null) {
             notifySynced();
-        } else if (saveFailure.getType() == SyncFailureType.CONVERSION_FAILED || saveFailure.getType() == SyncFailureType.VALIDATION_FAILED) {
+        } else {
+            saveFailed(saveFailure);
+        }
+    }
+
+    private final void saveFailed(SyncFailure saveFailure) {
+        if (saveFailure.getType() == SyncFailureType.CONVERSION_FAILED || saveFailure.getType() == SyncFailureType.VALIDATION_FAILED) {
             notifySyncFailed(saveFailure);
         } else {
             SyncFailure refreshFailure = refresh();
@@ -188,10 +634,121 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         }
     }
 
+    private final void saveFromTarget() {
+        cancelValidation();
+
+        if (validationExecutor == null || getValidator() == null) {
+            trySaveThenRefresh();
+            return;
+        }
+
+        SyncFailure failure = fetchTargetValueForSource(false);
+        if (failure != null) {
+            saveFailed(failure);
+            return;
+        }
+
+        final Object value = takeSyncValue();
+
+        if (!isSyncValueUnvalidated()) {
+            validationPassed(value);
+            return;
+        }
+
+        final Validator<? super SV> validator = getValidator();
+        final BindingDispatcher dispatcher = getDispatcher();
+
+        FutureTask<Validator<?>.Result> task = new FutureTask<Validator<?>.Result>(new Callable<Validator<?>.Result>() {
+            public Validator<?>.Result call() {
+                return validate(validator, value);
+            }
+        }) {
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+
+                final FutureTask<Validator<?>.Result> self = this;
+
+                if (dispatcher == null) {
+                    validationDone(self, value);
+                    return;
+                }
+
+                dispatcher.invokeLater(new Runnable() {
+                    public void run() {
+                        validationDone(self, value);
+                    }
+                });
+            }
+        };
+
+        pendingValidation = task;
+        validationExecutor.execute(task);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Validator<?>.Result validate(Validator<T> validator, Object value) {
+        // the value was converted for the source property, so it is a T
+        return validator.validate((T)value);
+    }
+
+    private final void validationDone(FutureTask<Validator<?>.Result> task, Object value) {
+        if (task != pendingValidation) {
+            // superseded
+            return;
+        }
+
+        pendingValidation = null;
+
+        if (!isBound()) {
+            return;
+        }
+
+        Validator<?>.Result result;
+        try {
+            result = task.get();
+        } catch (InterruptedException ie) {
+            throw new AssertionError(ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause);
+        }
+
+        if (result != null) {
+            notifySyncFailed(createValidationFailure(result));
+        } else {
+            validationPassed(value);
+        }
+    }
+
+    private final void validationPassed(Object value) {
+        SyncFailure failure = storeSourceValue(value);
+        if (failure == null) {
+            notifySynced();
+        } else {
+            saveFailed(failure);
+        }
+    }
+
+    private final void cancelValidation() {
+        if (pendingValidation != null) {
+            pendingValidation.cancel(true);
+            pendingValidation = null;
+        }
+    }
+
     protected void bindImpl() {
         UpdateStrategy strat = getUpdateStrategy();
 
-        if (strat == UpdateStrategy.READ_ONCE) {
+        if (strat == UpdateStrategy.READ_ON_DEMAND) {
+            // synced only when refreshed explicitly
+        } else if (strat == UpdateStrategy.READ_ONCE) {
             refreshAndNotify();
         } else if (strat == UpdateStrategy.READ) {
             refreshAndNotify();
@@ -200,7 +757,52 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         }
     }
 
-    protected void unbindImpl() {}
+    /**
+     * Returns {@code false} for the {@code READ_ONCE} and {@code READ_ON_DEMAND}
+     * update strategies, which don't act on changes, and {@code true} otherwise.
+     *
+     * @return whether to track changes while bound
+     */
+    protected boolean listensForChanges() {
+        return strategy == UpdateStrategy.READ || strategy == UpdateStrategy.READ_WRITE;
+    }
+
+    protected void unbindImpl() {
+        if (pendingScheduler != null) {
+            pendingScheduler.cancel(this);
+            pendingScheduler = null;
+        }
+
+        synchronized (timerLock) {
+            if (throttleTimeout != null) {
+                throttleTimeout.cancel();
+                throttleTimeout = null;
+                throttlePending = false;
+            }
+
+            if (debounceTimeout != null) {
+                debounceTimeout.cancel();
+                debounceTimeout = null;
+            }
+        }
+
+        cancelValidation();
+    }
+
+    private final void targetValueChanged() {
+        if (debounceDelay == 0) {
+            saveFromTarget();
+            return;
+        }
+
+        synchronized (timerLock) {
+            if (debounceTimeout != null) {
+                debounceTimeout.cancel();
+            }
+
+            debounceTimeout = scheduleDelay(false, debounceDelay);
+        }
+    }
 
     /**
      * Returns a string representing the internal state of the {@code Binding}.
@@ -220,11 +822,11 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
             // nothing to do
         } else if (strategy == UpdateStrategy.READ) {
             if (pse.getValueChanged()) {
-                refreshAndNotify();
+                sourceValueChanged();
             }
         } else if (strategy == UpdateStrategy.READ_WRITE) {
             if (pse.getValueChanged()) {
-                tryRefreshThenSave();
+                sourceValueChanged();
             } else if (pse.isWriteable()) {
                 saveAndNotify();
             }
@@ -246,7 +848,7 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
                     refreshAndNotify();
                 }
             } else if (pse.getValueChanged()) {
-                trySaveThenRefresh();
+                targetValueChanged();
             }
         }
     }
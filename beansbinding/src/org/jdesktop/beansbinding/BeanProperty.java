@@ -26,7 +26,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import org.jdesktop.observablecollections.ObservableMap;
-import org.jdesktop.observablecollections.ObservableMapListener;
+import org.jdesktop.observablecollections.ObservableMapChangeListener;
 import static org.jdesktop.beansbinding.PropertyStateEvent.UNREADABLE;
 import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
 
@@ -143,7 +143,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
     private static final Object NOREAD = new Object();
 
     private final class SourceEntry implements PropertyChangeListener,
-                                               ObservableMapListener,
+                                               ObservableMapChangeListener,
                                                PropertyStateListener {
 
         private S source;
@@ -346,7 +346,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             updateCachedSources(0);
             updateCachedValue();
             updateCachedWriter();
-            notifyListeners(wasWriteable, oldValue, this);
+            notifyListeners(wasWriteable, oldValue, true, this);
         }
         
         private void cachedValueChanged(int index) {
@@ -361,7 +361,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
                 updateCachedWriter();
             }
             
-            notifyListeners(wasWriteable, oldValue, this);
+            notifyListeners(wasWriteable, oldValue, index != path.length(), this);
         }
         
         private void mapValueChanged(ObservableMap map, Object key) {
@@ -420,6 +420,22 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
             mapValueChanged(map, key);
         }
+
+        public void mapChanged(ObservableMap map, Set<?> keys) {
+            if (ignoreChange) {
+                return;
+            }
+
+            int index = getSourceIndex(map);
+
+            if (index == -1) {
+                throw new AssertionError();
+            }
+
+            if (keys.contains(path.get(index))) {
+                cachedValueChanged(index + 1);
+            }
+        }
     }
 
     /**
@@ -570,7 +586,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
  
             Object oldValue = entry.cachedValue;
             entry.updateCachedValue();
-            notifyListeners(entry.cachedIsWriteable(), oldValue, entry);
+            notifyListeners(entry.cachedIsWriteable(), oldValue, false, entry);
         } else {
             setProperty(getLastSource(source), path.getLast(), value);
         }
@@ -680,7 +696,44 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         return oldValue == null || newValue == null || !oldValue.equals(newValue);
     }
 
-    private void notifyListeners(boolean wasWriteable, Object oldValue, SourceEntry entry) {
+    /**
+     * Returns the first property of this {@code BeanProperty's} path, or,
+     * when the path is relative to a base property, the names returned by
+     * the base property.
+     *
+     * @return the names of the source properties, or {@code null} if unknown
+     */
+    public Set<String> getSourcePropertyNames() {
+        if (baseProperty != null) {
+            return baseProperty.getSourcePropertyNames();
+        }
+
+        return Collections.singleton(path.get(0));
+    }
+
+    /**
+     * Adds the objects that the value for the given source is currently
+     * read through to the given collection. Only known while listeners
+     * are registered for the source.
+     */
+    void collectDependencies(S source, Collection<Object> out) {
+        SourceEntry entry = map.get(source);
+        if (entry == null) {
+            return;
+        }
+
+        if (baseProperty != null) {
+            Propagation.collectDependencies(baseProperty, source, out);
+        }
+
+        for (Object o : entry.cache) {
+            if (o != null && o != NOREAD) {
+                out.add(o);
+            }
+        }
+    }
+
+    private void notifyListeners(boolean wasWriteable, Object oldValue, boolean pathChanged, SourceEntry entry) {
         PropertyStateListener[] listeners = getPropertyStateListeners(entry.source);
 
         if (listeners == null || listeners.length == 0) {
@@ -703,6 +756,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
                                                         newValue,
                                                         writeableChanged,
                                                         entry.cachedIsWriteable());
+        pse.setPathChanged(pathChanged);
 
         this.firePropertyStateChange(pse);
     }
@@ -7,6 +7,7 @@ package org.jdesktop.beansbinding;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.beans.*;
 
 /**
@@ -44,6 +45,8 @@ public abstract class Binding<SS, SV, TS, TV> {
     private Property<TS, TV> targetProperty;
     private Validator<? super SV> validator;
     private Converter<SV, TV> converter;
+    private ConverterRegistry converterRegistry;
+    private List<BindingGroup> groups;
     private TV sourceNullValue;
     private SV targetNullValue;
     private TV sourceUnreadableValue;
@@ -51,9 +54,24 @@ public abstract class Binding<SS, SV, TS, TV> {
     private List<BindingListener> listeners;
     private PropertyStateListener psl;
     private boolean ignoreChange;
+    private boolean writingSource;
+    private Object echoValue = NO_ECHO;
+    private PropertyStateEvent adjustedSourceEvent;
+    private boolean dirty;
+    private boolean stale;
     private boolean isManaged;
     private boolean isBound;
     private PropertyChangeSupport changeSupport;
+    private Object syncValue;
+    private boolean syncValueUnvalidated;
+    private BindingDispatcher dispatcher;
+    private volatile BindingDispatcher activeDispatcher;
+    volatile PropertyStateEvent queuedSourceEvent;
+    volatile PropertyStateEvent queuedTargetEvent;
+    private final ConversionCache forwardCache = new ConversionCache();
+    private final ConversionCache reverseCache = new ConversionCache();
+
+    private static final Object NO_ECHO = new Object();
 
     /**
      * An enumeration representing the reasons a sync ({@code save} or {@code refresh})
@@ -110,6 +128,7 @@ public abstract class Binding<SS, SV, TS, TV> {
     public static final class SyncFailure {
         private SyncFailureType type;
         private Object reason;
+        private ValueResult<?> result;
 
         private static SyncFailure TARGET_UNWRITEABLE = new SyncFailure(SyncFailureType.TARGET_UNWRITEABLE);
         private static SyncFailure SOURCE_UNWRITEABLE = new SyncFailure(SyncFailureType.SOURCE_UNWRITEABLE);
@@ -130,6 +149,9 @@ public abstract class Binding<SS, SV, TS, TV> {
             }
 
             this.type = type;
+            // failures of these types carry no reason and are shared,
+            // so the ValueResult wrapping them can be shared too
+            this.result = new ValueResult<Object>(this);
         }
 
         private SyncFailure(RuntimeException exception) {
@@ -221,6 +243,14 @@ public abstract class Binding<SS, SV, TS, TV> {
             this.failure = failure;
         }
 
+        private static <V> ValueResult<V> failure(SyncFailure failure) {
+            if (failure.result != null) {
+                return (ValueResult<V>)failure.result;
+            }
+
+            return new ValueResult<V>(failure);
+        }
+
         /**
          * Returns {@code true} if this {@code ValueResult} represents
          * a failure and {@code false} otherwise.
@@ -540,6 +570,121 @@ public abstract class Binding<SS, SV, TS, TV> {
         return converter;
     }
 
+    /**
+     * Sets the {@code ConverterRegistry} used to convert values when the
+     * {@code Binding} has no {@code Converter}, which may be {@code null}.
+     * When {@code null}, the registry of the {@code BindingGroup} that the
+     * {@code Binding} belongs to is used, if any, or otherwise the
+     * {@link ConverterRegistry#getDefault default} registry.
+     * <p>
+     * {@code Binding} fires a property change notification with
+     * property name {@code "converterRegistry"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param converterRegistry the {@code ConverterRegistry}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     * @see #isBound()
+     * @see BindingGroup#setConverterRegistry
+     */
+    public final void setConverterRegistry(ConverterRegistry converterRegistry) {
+        throwIfBound();
+        ConverterRegistry old = this.converterRegistry;
+        this.converterRegistry = converterRegistry;
+        firePropertyChange("converterRegistry", old, converterRegistry);
+    }
+
+    /**
+     * Returns the {@code Binding's ConverterRegistry}, which may be {@code null}.
+     *
+     * @return the {@code Binding's ConverterRegistry}, or {@code null}
+     * @see #setConverterRegistry
+     */
+    public final ConverterRegistry getConverterRegistry() {
+        return converterRegistry;
+    }
+
+    /**
+     * Sets the {@code BindingDispatcher} that confines the handling of
+     * source and target changes to a dispatch thread, which may be
+     * {@code null}. When {@code null}, the default, the {@code Binding}
+     * handles changes on whichever thread reports them.
+     * <p>
+     * The dispatcher is also used to act upon a source that adjusts a value
+     * saved to it, as a setter that normalizes its argument does, once the
+     * target's change notification is over. Without a dispatcher, the
+     * {@code Binding} is only left {@link #isStale stale} in that case.
+     * <p>
+     * {@code Binding} fires a property change notification with
+     * property name {@code "dispatcher"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param dispatcher the {@code BindingDispatcher}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     * @see #isBound()
+     */
+    public final void setDispatcher(BindingDispatcher dispatcher) {
+        throwIfBound();
+        BindingDispatcher old = this.dispatcher;
+        this.dispatcher = dispatcher;
+        firePropertyChange("dispatcher", old, dispatcher);
+    }
+
+    /**
+     * Returns the {@code Binding's BindingDispatcher}, which may be {@code null}.
+     *
+     * @return the {@code BindingDispatcher}, or {@code null}
+     * @see #setDispatcher
+     */
+    public final BindingDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    final void addGroup(BindingGroup group) {
+        if (groups == null) {
+            groups = new ArrayList<BindingGroup>(1);
+        }
+
+        groups.add(group);
+    }
+
+    final void removeGroup(BindingGroup group) {
+        groups.remove(group);
+
+        if (groups.isEmpty()) {
+            groups = null;
+        }
+    }
+
+    /**
+     * Returns the groups that this binding belongs to, in the order in which
+     * it was added to them.
+     */
+    final List<BindingGroup> getGroups() {
+        return groups == null ? Collections.<BindingGroup>emptyList() : groups;
+    }
+
+    private final ConverterRegistry resolveConverterRegistry() {
+        if (converterRegistry != null) {
+            return converterRegistry;
+        }
+
+        if (groups != null) {
+            // the first group that has one, in the order the binding joined
+            for (BindingGroup group : groups) {
+                ConverterRegistry groupRegistry = group.getConverterRegistry();
+                if (groupRegistry != null) {
+                    return groupRegistry;
+                }
+            }
+        }
+
+        return ConverterRegistry.getDefault();
+    }
+
     /**
      * Sets the value to be returned by {@link #getSourceValueForTarget}
      * when the source property returns {@code null} for the source object.
@@ -820,15 +965,30 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @throws ClassCastException if thrown by a converter or the final cast
      */
     public final ValueResult<TV> getSourceValueForTarget() {
+        SyncFailure failure = fetchSourceValueForTarget();
+        if (failure != null) {
+            return ValueResult.failure(failure);
+        }
+
+        return new ValueResult<TV>((TV)takeSyncValue());
+    }
+
+    /**
+     * Does the work of {@link #getSourceValueForTarget} without wrapping
+     * the outcome: returns the failure, or {@code null} after leaving the
+     * value in {@code syncValue}.
+     */
+    private final SyncFailure fetchSourceValueForTarget() {
         if (!targetProperty.isWriteable(targetObject)) {
-            return new ValueResult<TV>(SyncFailure.TARGET_UNWRITEABLE);
+            return SyncFailure.TARGET_UNWRITEABLE;
         }
 
         if (!sourceProperty.isReadable(sourceObject)) {
             if (sourceUnreadableValueSet) {
-                return new ValueResult<TV>(sourceUnreadableValue);
+                syncValue = sourceUnreadableValue;
+                return null;
             } else {
-                return new ValueResult<TV>(SyncFailure.SOURCE_UNREADABLE);
+                return SyncFailure.SOURCE_UNREADABLE;
             }
         }
 
@@ -844,7 +1004,14 @@ public abstract class Binding<SS, SV, TS, TV> {
             value = convertForward(rawValue);
         }
 
-        return new ValueResult<TV>(value);
+        syncValue = value;
+        return null;
+    }
+
+    final Object takeSyncValue() {
+        Object value = syncValue;
+        syncValue = null;
+        return value;
     }
 
     /**
@@ -891,12 +1058,30 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @throws ClassCastException if thrown by a converter or the final cast
      */
     public final ValueResult<SV> getTargetValueForSource() {
+        SyncFailure failure = fetchTargetValueForSource(true);
+        if (failure != null) {
+            return ValueResult.failure(failure);
+        }
+
+        return new ValueResult<SV>((SV)takeSyncValue());
+    }
+
+    /**
+     * Does the work of {@link #getTargetValueForSource} without wrapping
+     * the outcome: returns the failure, or {@code null} after leaving the
+     * value in {@code syncValue}. When {@code validate} is {@code false},
+     * the validator isn't run and {@code syncValueUnvalidated} records
+     * whether it should have been.
+     */
+    final SyncFailure fetchTargetValueForSource(boolean validate) {
+        syncValueUnvalidated = false;
+
         if (!sourceProperty.isWriteable(sourceObject)) {
-            return new ValueResult<SV>(SyncFailure.SOURCE_UNWRITEABLE);
+            return SyncFailure.SOURCE_UNWRITEABLE;
         }
 
         if (!targetProperty.isReadable(targetObject)) {
-            return new ValueResult<SV>(SyncFailure.TARGET_UNREADABLE);
+            return SyncFailure.TARGET_UNREADABLE;
         }
 
         SV value = null;
@@ -910,25 +1095,52 @@ public abstract class Binding<SS, SV, TS, TV> {
             } catch (ClassCastException cce) {
                 throw cce;
             } catch (RuntimeException rte) {
-                return new ValueResult<SV>(SyncFailure.conversionFailure(rte));
+                return SyncFailure.conversionFailure(rte);
             }
 
             if (validator != null) {
-                Validator.Result vr = validator.validate(value);
-                if (vr != null) {
-                    return new ValueResult<SV>(SyncFailure.validationFailure(vr));
+                if (!validate) {
+                    syncValueUnvalidated = true;
+                } else {
+                    Validator.Result vr = validator.validate(value);
+                    if (vr != null) {
+                        return SyncFailure.validationFailure(vr);
+                    }
                 }
             }
         }
 
-        return new ValueResult<SV>((SV)value);
+        syncValue = value;
+        return null;
+    }
+
+    /**
+     * Sets a value obtained from {@link #fetchTargetValueForSource}, and
+     * validated since, on the source property.
+     */
+    final SyncFailure storeSourceValue(Object value) {
+        if (!sourceProperty.isWriteable(sourceObject)) {
+            return SyncFailure.SOURCE_UNWRITEABLE;
+        }
+
+        writeSource(value);
+        return null;
+    }
+
+    final boolean isSyncValueUnvalidated() {
+        return syncValueUnvalidated;
+    }
+
+    static final SyncFailure createValidationFailure(Validator<?>.Result result) {
+        return SyncFailure.validationFailure(result);
     }
 
     /**
      * Binds this binding. Calls {@link #bindImpl} to allow subclasses
      * to initiate binding, adds a {@code PropertyStateListener} to the source
      * property for the source object and the target property for the target
-     * object to start tracking changes, notifies all registered
+     * object to start tracking changes (unless {@link #listensForChanges}
+     * returns {@code false}), notifies all registered
      * {@code BindingListeners} that the binding has become bound, and
      * fires a property change notification to indicate a change to the
      * {@code "bound"} property.
@@ -958,9 +1170,14 @@ public abstract class Binding<SS, SV, TS, TV> {
 
         bindImpl();
 
-        psl = new PSL();
-        sourceProperty.addPropertyStateListener(sourceObject, psl);
-        targetProperty.addPropertyStateListener(targetObject, psl);
+        forwardCache.clear();
+        reverseCache.clear();
+        activeDispatcher = dispatcher;
+        if (listensForChanges()) {
+            psl = new PSL();
+            sourceProperty.addPropertyStateListener(sourceObject, psl);
+            targetProperty.addPropertyStateListener(targetObject, psl);
+        }
 
         isBound = true;
 
@@ -984,6 +1201,21 @@ public abstract class Binding<SS, SV, TS, TV> {
      */
     protected abstract void bindImpl();
 
+    /**
+     * Returns whether this {@code Binding} should track changes to its source
+     * and target properties while bound. When {@code false}, {@code bind}
+     * adds no {@code PropertyStateListeners} at all, so a bound binding costs
+     * nothing until it is explicitly refreshed or saved, and
+     * {@link #sourceChangedImpl} and {@link #targetChangedImpl} are never
+     * called. Called once, at bind time. This implementation returns
+     * {@code true}.
+     *
+     * @return whether to track changes while bound
+     */
+    protected boolean listensForChanges() {
+        return true;
+    }
+
     /**
      * Unbinds this binding. Removes the {@code PropertyStateListeners}
      * added by {@code bind}, calls {@link #unbindImpl} to allow subclasses
@@ -1014,9 +1246,15 @@ public abstract class Binding<SS, SV, TS, TV> {
     protected final void unbindUnmanaged() {
         throwIfUnbound();
 
-        sourceProperty.removePropertyStateListener(sourceObject, psl);
-        targetProperty.removePropertyStateListener(targetObject, psl);
-        psl = null;
+        if (psl != null) {
+            sourceProperty.removePropertyStateListener(sourceObject, psl);
+            targetProperty.removePropertyStateListener(targetObject, psl);
+            psl = null;
+        }
+        activeDispatcher = null;
+        clearChanges();
+        queuedSourceEvent = null;
+        queuedTargetEvent = null;
 
         unbindImpl();
 
@@ -1053,6 +1291,84 @@ public abstract class Binding<SS, SV, TS, TV> {
         return isBound;
     }
 
+    /**
+     * Returns whether the target value has changed since this {@code Binding}
+     * was last synced, either way. Only changes reported by the target
+     * property while the binding is bound are tracked; the binding's own
+     * updates of the target are not counted. A {@code READ_WRITE}
+     * {@code AutoBinding} that saves the change successfully is therefore
+     * only momentarily dirty, whereas a binding whose target changes are
+     * saved manually stays dirty until it is saved or refreshed. A binding
+     * that doesn't {@link #listensForChanges listen for changes} is never dirty.
+     * <p>
+     * {@code Binding} fires a property change notification with
+     * property name {@code "dirty"} when the value of
+     * this property changes.
+     *
+     * @return whether the target has changed since the last sync
+     * @see #isStale
+     * @see BindingGroup#saveDirty
+     */
+    public final boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Returns whether the source value has changed since this {@code Binding}
+     * was last synced, either way. Only changes reported by the source
+     * property while the binding is bound are tracked; the binding's own
+     * updates of the source are not counted. A binding that doesn't
+     * {@link #listensForChanges listen for changes} is never stale.
+     * <p>
+     * {@code Binding} fires a property change notification with
+     * property name {@code "stale"} when the value of
+     * this property changes.
+     *
+     * @return whether the source has changed since the last sync
+     * @see #isDirty
+     * @see BindingGroup#refreshStale
+     */
+    public final boolean isStale() {
+        return stale;
+    }
+
+    private final void setDirty(boolean dirty) {
+        if (this.dirty == dirty) {
+            return;
+        }
+
+        this.dirty = dirty;
+
+        if (groups != null) {
+            for (BindingGroup group : groups) {
+                group.dirtyChanged(this, dirty);
+            }
+        }
+
+        firePropertyChange("dirty", !dirty, dirty);
+    }
+
+    private final void setStale(boolean stale) {
+        if (this.stale == stale) {
+            return;
+        }
+
+        this.stale = stale;
+
+        if (groups != null) {
+            for (BindingGroup group : groups) {
+                group.staleChanged(this, stale);
+            }
+        }
+
+        firePropertyChange("stale", !stale, stale);
+    }
+
+    private final void clearChanges() {
+        setDirty(false);
+        setStale(false);
+    }
+
     /**
      * Sets whether or not this {@code Binding} is managed. Some
      * {@code Bindings} are managed, often by another {@code Binding}.
@@ -1219,18 +1535,19 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @see #isManaged()
      */
     protected final SyncFailure refreshUnmanaged() {
-        ValueResult<TV> vr = getSourceValueForTarget();
-        if (vr.failed()) {
-            return vr.getFailure();
+        SyncFailure failure = fetchSourceValueForTarget();
+        if (failure != null) {
+            return failure;
         }
 
         try {
             ignoreChange = true;
-            targetProperty.setValue(targetObject, vr.getValue());
+            targetProperty.setValue(targetObject, (TV)takeSyncValue());
         } finally {
             ignoreChange = false;
         }
 
+        clearChanges();
         return null;
     }
 
@@ -1241,6 +1558,10 @@ public abstract class Binding<SS, SV, TS, TV> {
      * from that method represents a failure, this method returns the failure.
      * Otherwise, it calls {@code setValue} on the source property for the
      * source object with the value obtained from the target.
+     * <p>
+     * The source property's notification of the new value is not reported as
+     * a change of the source, unless the value it reports differs from the one
+     * that was set, as when the source normalizes the values set on it.
      *
      * @return the reason for failure if the binding could not be saved,
      *         or {@code null} for success
@@ -1265,19 +1586,75 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @see #isManaged()
      */
     protected final SyncFailure saveUnmanaged() {
-        ValueResult<SV> vr = getTargetValueForSource();
-        if (vr.failed()) {
-            return vr.getFailure();
+        SyncFailure failure = fetchTargetValueForSource(true);
+        if (failure != null) {
+            return failure;
         }
 
+        writeSource(takeSyncValue());
+        return null;
+    }
+
+    /**
+     * Sets a value on the source property. The source's report of the change,
+     * made while the value is being written, is recognized as an echo of this
+     * write by comparing the value it reports with the value written, and is
+     * not acted upon. Should the source report a different value, for instance
+     * because its setter normalized the value, the binding becomes stale. As
+     * a save is usually made from within the target's own change notification,
+     * where the target may not allow its value to be set, the change is only
+     * handled once the binding's dispatcher gets to it, or, without a
+     * dispatcher, when the binding is next refreshed.
+     */
+    private final void writeSource(Object value) {
+        PropertyStateEvent adjusted;
+        echoValue = value;
+
         try {
-            ignoreChange = true;
-            sourceProperty.setValue(sourceObject, vr.getValue());
+            writingSource = true;
+            sourceProperty.setValue(sourceObject, (SV)value);
         } finally {
-            ignoreChange = false;
+            writingSource = false;
+            echoValue = NO_ECHO;
+            adjusted = adjustedSourceEvent;
+            adjustedSourceEvent = null;
         }
 
-        return null;
+        clearChanges();
+
+        if (adjusted != null) {
+            sourceAdjusted(adjusted);
+        }
+    }
+
+    private final boolean isEcho(PropertyStateEvent pse) {
+        if (echoValue == NO_ECHO || !pse.getValueChanged()) {
+            return false;
+        }
+
+        Object echo = echoValue;
+        echoValue = NO_ECHO;
+        Object value = pse.getNewValue();
+        return echo == value || (echo != null && echo.equals(value));
+    }
+
+    private final void sourceAdjusted(final PropertyStateEvent pse) {
+        if (pse.getValueChanged()) {
+            setStale(true);
+        }
+
+        BindingDispatcher d = activeDispatcher;
+        if (d == null) {
+            return;
+        }
+
+        d.invokeLater(new Runnable() {
+            public void run() {
+                if (isBound()) {
+                    sourceChanged(pse);
+                }
+            }
+        });
     }
 
     private final Class<?> noPrimitiveType(Class<?> klass) {
@@ -1308,8 +1685,7 @@ public abstract class Binding<SS, SV, TS, TV> {
 
     private final TV convertForward(SV value) {
         if (converter == null) {
-            Class<?> targetType = noPrimitiveType(targetProperty.getWriteType(targetObject));
-            return (TV)targetType.cast(Converter.defaultConvert(value, targetType));
+            return (TV)defaultConvert(value, forwardCache, targetProperty, targetObject);
         }
 
         return converter.convertForward(value);
@@ -1317,13 +1693,44 @@ public abstract class Binding<SS, SV, TS, TV> {
 
     private final SV convertReverse(TV value) {
         if (converter == null) {
-            Class<?> sourceType = noPrimitiveType(sourceProperty.getWriteType(sourceObject));
-            return (SV)sourceType.cast(Converter.defaultConvert(value, sourceType));
+            return (SV)defaultConvert(value, reverseCache, sourceProperty, sourceObject);
         }
 
         return converter.convertReverse(value);
     }
 
+    @SuppressWarnings("unchecked")
+    private final <S> Object defaultConvert(Object value, ConversionCache cache, Property<S, ?> property, S object) {
+        // the cached write type is only trusted while bound, since
+        // it is the property listener that keeps it up to date
+        if (psl == null) {
+            cache.clear();
+        }
+
+        Class<?> writeType = cache.writeType;
+        if (writeType == null) {
+            writeType = noPrimitiveType(property.getWriteType(object));
+            cache.writeType = writeType;
+        }
+
+        ConverterRegistry registry = resolveConverterRegistry();
+        int modCount = registry.getModCount();
+        Class<?> valueClass = value.getClass();
+
+        Converter<?, ?> conv;
+        if (cache.valueClass == valueClass && cache.registry == registry && cache.modCount == modCount) {
+            conv = cache.converter;
+        } else {
+            conv = registry.getConverter(valueClass, writeType);
+            cache.valueClass = valueClass;
+            cache.registry = registry;
+            cache.modCount = modCount;
+            cache.converter = conv;
+        }
+
+        return writeType.cast(conv == null ? value : ((Converter<Object, ?>)conv).convertForward(value));
+    }
+
     /**
      * Throws an UnsupportedOperationException if the {@code Binding} is managed.
      * Useful for calling at the beginning of method implementations that
@@ -1608,17 +2015,78 @@ public abstract class Binding<SS, SV, TS, TV> {
         }
     }
 
+    final void dispatchQueued(PropertyStateEvent pse, boolean isSource) {
+        if (psl != null) {
+            dispatch(pse, isSource);
+        }
+    }
+
+    private final void dispatch(PropertyStateEvent pse, boolean isSource) {
+        if (pse.getWriteableChanged() || (pse.getValueChanged() && pse.getPathChanged())) {
+            // the write type may no longer be valid
+            if (isSource) {
+                reverseCache.clear();
+            } else {
+                forwardCache.clear();
+            }
+        }
+
+        if (ignoreChange) {
+            return;
+        }
+
+        if (isSource) {
+            if (writingSource) {
+                if (!isEcho(pse)) {
+                    // the latest one wins; see writeSource
+                    adjustedSourceEvent = pse;
+                }
+            } else {
+                if (pse.getValueChanged()) {
+                    setStale(true);
+                }
+
+                sourceChanged(pse);
+            }
+        } else if (!writingSource) {
+            if (pse.getValueChanged()) {
+                setDirty(true);
+            }
+
+            targetChanged(pse);
+        }
+    }
+
     private class PSL implements PropertyStateListener {
         public void propertyStateChanged(PropertyStateEvent pse) {
-            if (ignoreChange) {
+            boolean isSource = pse.getSourceProperty() == sourceProperty && pse.getSourceObject() == sourceObject;
+
+            BindingDispatcher d = activeDispatcher;
+            if (d != null && !d.isDispatchThread()) {
+                d.post(Binding.this, pse, isSource);
                 return;
             }
 
-            if (pse.getSourceProperty() == sourceProperty && pse.getSourceObject() == sourceObject) {
-                sourceChanged(pse);
-            } else {
-                targetChanged(pse);
-            }
+            dispatch(pse, isSource);
+        }
+    }
+
+    /**
+     * Caches the write type of the property being converted to, together
+     * with the default converter last used to convert to that type.
+     */
+    private static final class ConversionCache {
+        private Class<?> writeType;
+        private Class<?> valueClass;
+        private Converter<?, ?> converter;
+        private ConverterRegistry registry;
+        private int modCount;
+
+        private void clear() {
+            writeType = null;
+            valueClass = null;
+            converter = null;
+            registry = null;
         }
     }
 
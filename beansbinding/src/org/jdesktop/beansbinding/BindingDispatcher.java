@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.beansbinding;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * {@code BindingDispatcher} confines the handling of property state changes
+ * for a {@code Binding} to a single dispatch thread. A change that is reported
+ * on the dispatch thread is handled immediately, exactly as it would be
+ * without a dispatcher. A change reported on any other thread is queued, and
+ * all queued changes are later handled together on the dispatch thread, in a
+ * single task. While a binding waits, further changes to the same side of
+ * the binding are merged into the one already queued, so that the binding
+ * handles at most one source change and one target change per batch, carrying
+ * the latest value.
+ * <p>
+ * Queueing is lock-free: producer threads only append to a non-blocking queue
+ * and request a drain when the queue was previously idle.
+ * <p>
+ * A binding only uses a dispatcher if one is set on it explicitly. A
+ * dispatcher for the AWT event dispatch thread is available from
+ * {@code SwingBindings.getEventQueueDispatcher}.
+ *
+ * @see Binding#setDispatcher
+ */
+public abstract class BindingDispatcher {
+
+    private static final AtomicReferenceFieldUpdater<Binding<?, ?, ?, ?>, PropertyStateEvent> SOURCE_EVENT =
+            eventUpdater("queuedSourceEvent");
+
+    private static final AtomicReferenceFieldUpdater<Binding<?, ?, ?, ?>, PropertyStateEvent> TARGET_EVENT =
+            eventUpdater("queuedTargetEvent");
+
+    private final ConcurrentLinkedQueue<Binding<?, ?, ?, ?>> queue = new ConcurrentLinkedQueue<Binding<?, ?, ?, ?>>();
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static AtomicReferenceFieldUpdater<Binding<?, ?, ?, ?>, PropertyStateEvent> eventUpdater(String field) {
+        // Binding.class is a raw Class, so the updater can only be created raw
+        return (AtomicReferenceFieldUpdater)AtomicReferenceFieldUpdater.newUpdater(
+                Binding.class, PropertyStateEvent.class, field);
+    }
+
+    /**
+     * Creates a {@code BindingDispatcher}.
+     */
+    protected BindingDispatcher() {}
+
+    /**
+     * Returns whether the current thread is the dispatch thread.
+     *
+     * @return whether the current thread is the dispatch thread
+     */
+    protected abstract boolean isDispatchThread();
+
+    /**
+     * Called when a change has been queued and no drain is pending.
+     * Implementations should arrange for {@link #drain} to be called on
+     * the dispatch thread.
+     */
+    protected abstract void requestDrain();
+
+    /**
+     * Handles all queued changes and runs all queued tasks. Must be called on
+     * the dispatch thread. Changes for bindings that have since been unbound
+     * are discarded.
+     */
+    public final void drain() {
+        drainRequested.set(false);
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+
+        Binding<?, ?, ?, ?> binding;
+        while ((binding = queue.poll()) != null) {
+            PropertyStateEvent source = SOURCE_EVENT.getAndSet(binding, null);
+            PropertyStateEvent target = TARGET_EVENT.getAndSet(binding, null);
+
+            if (source != null) {
+                binding.dispatchQueued(source, true);
+            }
+
+            if (target != null) {
+                binding.dispatchQueued(target, false);
+            }
+        }
+    }
+
+    final void post(Binding<?, ?, ?, ?> binding, PropertyStateEvent pse, boolean isSource) {
+        AtomicReferenceFieldUpdater<Binding<?, ?, ?, ?>, PropertyStateEvent> updater =
+                isSource ? SOURCE_EVENT : TARGET_EVENT;
+
+        PropertyStateEvent queued;
+        PropertyStateEvent merged;
+        do {
+            queued = updater.get(binding);
+            merged = queued == null ? pse : merge(queued, pse);
+        } while (!updater.compareAndSet(binding, queued, merged));
+
+        if (queued != null) {
+            // the binding is already in the queue
+            return;
+        }
+
+        queue.offer(binding);
+
+        if (drainRequested.compareAndSet(false, true)) {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Runs the given task on the dispatch thread, with the next drain.
+     */
+    final void invokeLater(Runnable task) {
+        tasks.offer(task);
+
+        if (drainRequested.compareAndSet(false, true)) {
+            requestDrain();
+        }
+    }
+
+    private static PropertyStateEvent merge(PropertyStateEvent first, PropertyStateEvent next) {
+        boolean valueChanged = first.getValueChanged() || next.getValueChanged();
+        Object oldValue = null;
+        Object newValue = null;
+
+        if (valueChanged) {
+            oldValue = first.getValueChanged() ? first.getOldValue() : next.getOldValue();
+            newValue = next.getValueChanged() ? next.getNewValue() : first.getNewValue();
+
+            if (oldValue == PropertyStateEvent.UNREADABLE && newValue == PropertyStateEvent.UNREADABLE) {
+                valueChanged = false;
+            }
+        }
+
+        boolean writeableChanged = first.getWriteableChanged() || next.getWriteableChanged();
+        boolean isWriteable = false;
+
+        if (writeableChanged) {
+            isWriteable = next.getWriteableChanged() ? next.isWriteable() : first.isWriteable();
+        }
+
+        if (!valueChanged && !writeableChanged) {
+            // changed and then changed back; keep the latest event
+            return next;
+        }
+
+        PropertyStateEvent pse = new PropertyStateEvent(next.getSourceProperty(),
+                                                        next.getSourceObject(),
+                                                        valueChanged,
+                                                        oldValue,
+                                                        newValue,
+                                                        writeableChanged,
+                                                        isWriteable);
+        pse.setPathChanged(first.getPathChanged() || next.getPathChanged());
+        return pse;
+    }
+}
@@ -15,11 +15,22 @@ import java.util.*;
  * @author Shannon Hickey
  */
 public class BindingGroup {
-    private final List<Binding> unbound = new ArrayList<Binding>();
-    private final List<Binding> bound = new ArrayList<Binding>();
+    private final Map<Binding, Member> members = new IdentityHashMap<Binding, Member>();
+    // the members, in the order they were added, and the dirty and
+    // stale members, in the order they became so
+    private final Set<Member> ordered = new LinkedHashSet<Member>();
+    private final Set<Member> dirty = new LinkedHashSet<Member>();
+    private final Set<Member> stale = new LinkedHashSet<Member>();
+    // the members in order, for bind and unbind to walk; dropped whenever
+    // a member is added or removed, and rebuilt when next needed
+    private Member[] snapshot;
     private List<BindingListener> listeners;
     private Handler handler;
     private Map<String, Binding> namedBindings;
+    private ConverterRegistry converterRegistry;
+    private BindingScheduler scheduler;
+    private int batchDepth;
+    private BindingScheduler batchScheduler;
 
     /**
      * Creates an empty {@code BindingGroup}.
@@ -35,6 +46,41 @@ public class BindingGroup {
      *         contains a binding with the same ({@code non-null}) name
      */
     public final void addBinding(Binding binding) {
+        checkAddable(binding, null);
+        addImpl(binding);
+    }
+
+    /**
+     * Adds all of the given {@code Bindings} to this group. Either all of
+     * the bindings are added, or, if any of them can't be, none are.
+     *
+     * @param bindings the {@code Bindings} to add
+     * @throws IllegalArgumentException if {@code bindings} is {@code null}, or if
+     *         any of the bindings can't be added for one of the reasons given
+     *         for {@link #addBinding}, including appearing twice in the collection
+     *         or sharing a ({@code non-null}) name with another of them
+     */
+    public final void addBindings(Collection<? extends Binding> bindings) {
+        if (bindings == null) {
+            throw new IllegalArgumentException("Bindings must be non-null");
+        }
+
+        Map<Binding, Boolean> adding = new IdentityHashMap<Binding, Boolean>(bindings.size());
+        Set<String> names = new HashSet<String>();
+
+        for (Binding binding : bindings) {
+            checkAddable(binding, names);
+            if (adding.put(binding, Boolean.TRUE) != null) {
+                throw new IllegalArgumentException("Collection contains this binding more than once");
+            }
+        }
+
+        for (Binding binding : bindings) {
+            addImpl(binding);
+        }
+    }
+
+    private void checkAddable(Binding binding, Set<String> names) {
         if (binding == null) {
             throw new IllegalArgumentException("Binding must be non-null");
         }
@@ -43,25 +89,38 @@ public class BindingGroup {
             throw new IllegalArgumentException("Managed bindings can't be in a group");
         }
 
-        if (bound.contains(binding) || unbound.contains(binding)) {
+        if (members.containsKey(binding)) {
             throw new IllegalArgumentException("Group already contains this binding");
         }
 
         String name = binding.getName();
         if (name != null) {
-            if (getBinding(name) != null) {
+            if (getBinding(name) != null || (names != null && !names.add(name))) {
                 throw new IllegalArgumentException("Context already contains a binding with name \"" + name + "\"");
-            } else {
-                putNamed(name, binding);
             }
         }
+    }
+
+    private void addImpl(Binding binding) {
+        String name = binding.getName();
+        if (name != null) {
+            putNamed(name, binding);
+        }
 
         binding.addBindingListener(getHandler());
+        binding.addGroup(this);
 
-        if (binding.isBound()) {
-            bound.add(binding);
-        } else {
-            unbound.add(binding);
+        Member member = new Member(binding);
+        members.put(binding, member);
+        ordered.add(member);
+        snapshot = null;
+
+        if (binding.isDirty()) {
+            dirty.add(member);
+        }
+
+        if (binding.isStale()) {
+            stale.add(member);
         }
     }
 
@@ -77,16 +136,51 @@ public class BindingGroup {
             throw new IllegalArgumentException("Binding must be non-null");
         }
 
-        if (binding.isBound()) {
-            if (!bound.remove(binding)) {
-                throw new IllegalArgumentException("Unknown Binding");
+        if (!members.containsKey(binding)) {
+            throw new IllegalArgumentException("Unknown Binding");
+        }
+
+        removeImpl(binding);
+    }
+
+    /**
+     * Removes all of the given {@code Bindings} from this group. Either all of
+     * the bindings are removed, or, if any of them isn't in the group, none are.
+     *
+     * @param bindings the {@code Bindings} to remove
+     * @throws IllegalArgumentException if {@code bindings} is {@code null}, or
+     *         if any of the bindings is {@code null} or isn't in this group
+     */
+    public final void removeBindings(Collection<? extends Binding> bindings) {
+        if (bindings == null) {
+            throw new IllegalArgumentException("Bindings must be non-null");
+        }
+
+        for (Binding binding : bindings) {
+            if (binding == null) {
+                throw new IllegalArgumentException("Binding must be non-null");
             }
-        } else {
-            if (!unbound.remove(binding)) {
+
+            if (!members.containsKey(binding)) {
                 throw new IllegalArgumentException("Unknown Binding");
             }
         }
 
+        for (Binding binding : bindings) {
+            // tolerate duplicates in the collection
+            if (members.containsKey(binding)) {
+                removeImpl(binding);
+            }
+        }
+    }
+
+    private void removeImpl(Binding binding) {
+        Member member = members.remove(binding);
+        ordered.remove(member);
+        snapshot = null;
+        dirty.remove(member);
+        stale.remove(member);
+
         String name = binding.getName();
         if (name != null) {
             assert namedBindings != null;
@@ -94,6 +188,7 @@ public class BindingGroup {
         }
 
         binding.removeBindingListener(getHandler());
+        binding.removeGroup(this);
     }
 
     private void putNamed(String name, Binding binding) {
@@ -123,33 +218,282 @@ public class BindingGroup {
     }
 
     /**
-     * Returns a list of all {@code Bindings} in this group. Order is undefined.
-     * Returns an empty list if the group contains no {@code Bindings}.
+     * Returns a list of all {@code Bindings} in this group, in the order
+     * they were added. Returns an empty list if the group contains no
+     * {@code Bindings}.
      *
      * @return a list of all {@code Bindings} in this group.
      */
     public final List<Binding> getBindings() {
-        ArrayList list = new ArrayList(bound);
-        list.addAll(unbound);
-        return Collections.unmodifiableList(list);
+        return Collections.unmodifiableList(bindings(ordered));
+    }
+
+    /**
+     * Returns a list of the {@code Bindings} in this group whose target has
+     * changed since they were last synced. Order is undefined. The group keeps
+     * track of these as they change, so this doesn't examine every binding.
+     *
+     * @return a list of the dirty {@code Bindings} in this group
+     * @see Binding#isDirty
+     */
+    public final List<Binding> getDirtyBindings() {
+        return Collections.unmodifiableList(bindings(dirty));
+    }
+
+    /**
+     * Returns a list of the {@code Bindings} in this group whose source has
+     * changed since they were last synced. Order is undefined.
+     *
+     * @return a list of the stale {@code Bindings} in this group
+     * @see Binding#isStale
+     */
+    public final List<Binding> getStaleBindings() {
+        return Collections.unmodifiableList(bindings(stale));
+    }
+
+    private static List<Binding> bindings(Collection<Member> members) {
+        List<Binding> list = new ArrayList<Binding>(members.size());
+        for (Member member : members) {
+            list.add(member.binding);
+        }
+        return list;
+    }
+
+    /**
+     * Calls {@code saveAndNotify} on each dirty binding in the group, leaving
+     * the other bindings untouched. A binding whose save fails remains dirty.
+     *
+     * @return the failures, by binding; empty if every save succeeded
+     * @see #getDirtyBindings
+     */
+    public final Map<Binding, Binding.SyncFailure> saveDirty() {
+        Map<Binding, Binding.SyncFailure> failures = new IdentityHashMap<Binding, Binding.SyncFailure>();
+
+        for (Binding binding : bindings(dirty)) {
+            Binding.SyncFailure failure = binding.saveAndNotify();
+            if (failure != null) {
+                failures.put(binding, failure);
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Calls {@code refreshAndNotify} on each stale binding in the group,
+     * leaving the other bindings untouched. A binding whose refresh fails
+     * remains stale.
+     *
+     * @return the failures, by binding; empty if every refresh succeeded
+     * @see #getStaleBindings
+     */
+    public final Map<Binding, Binding.SyncFailure> refreshStale() {
+        Map<Binding, Binding.SyncFailure> failures = new IdentityHashMap<Binding, Binding.SyncFailure>();
+
+        for (Binding binding : bindings(stale)) {
+            Binding.SyncFailure failure = binding.refreshAndNotify();
+            if (failure != null) {
+                failures.put(binding, failure);
+            }
+        }
+
+        return failures;
+    }
+
+    final void dirtyChanged(Binding binding, boolean isDirty) {
+        Member member = members.get(binding);
+        if (member == null) {
+            return;
+        }
+
+        if (isDirty) {
+            dirty.add(member);
+        } else {
+            dirty.remove(member);
+        }
+    }
+
+    final void staleChanged(Binding binding, boolean isStale) {
+        Member member = members.get(binding);
+        if (member == null) {
+            return;
+        }
+
+        if (isStale) {
+            stale.add(member);
+        } else {
+            stale.remove(member);
+        }
+    }
+
+    /**
+     * Sets the {@code ConverterRegistry} used by {@code Bindings} in this
+     * group that have neither a {@code Converter} nor a {@code ConverterRegistry}
+     * of their own. When {@code null}, the default registry is used. A
+     * {@code Binding} that belongs to several groups uses the registry of
+     * the first of them, in the order it was added to them, that has one.
+     *
+     * @param converterRegistry the {@code ConverterRegistry}, or {@code null}
+     * @see Binding#setConverterRegistry
+     */
+    public final void setConverterRegistry(ConverterRegistry converterRegistry) {
+        this.converterRegistry = converterRegistry;
+    }
+
+    /**
+     * Returns the {@code ConverterRegistry} for this group, which may be
+     * {@code null}.
+     *
+     * @return the {@code ConverterRegistry}, or {@code null}
+     * @see #setConverterRegistry
+     */
+    public final ConverterRegistry getConverterRegistry() {
+        return converterRegistry;
+    }
+
+    /**
+     * Sets the {@code BindingScheduler} used by {@code AutoBindings} in this
+     * group that don't have a {@code BindingScheduler} of their own. When
+     * {@code null}, such bindings act upon source changes immediately. As
+     * with {@link #setConverterRegistry}, a binding that belongs to several
+     * groups uses the scheduler of the first of them that has one.
+     * <p>
+     * A binding that is waiting for a flush when this property changes
+     * is still synced by the scheduler it was waiting for.
+     *
+     * @param scheduler the {@code BindingScheduler}, or {@code null}
+     * @see AutoBinding#setScheduler
+     */
+    public final void setScheduler(BindingScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the {@code BindingScheduler} for this group, which may be
+     * {@code null}.
+     *
+     * @return the {@code BindingScheduler}, or {@code null}
+     * @see #setScheduler
+     */
+    public final BindingScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Begins a batch of changes. Until the matching call to {@link #endBatch},
+     * {@code AutoBindings} in this group don't act upon source value changes;
+     * they only record that they need to. Batches may be nested, in which case
+     * only the outermost {@code endBatch} ends the batch.
+     *
+     * @see #runBatched
+     */
+    public final void beginBatch() {
+        if (batchDepth++ == 0) {
+            batchScheduler = new BindingScheduler() {
+                protected void requestFlush() {
+                    // flushed by endBatch
+                }
+            };
+        }
+    }
+
+    /**
+     * Ends a batch of changes begun with {@link #beginBatch}. When the outermost
+     * batch ends, each {@code AutoBinding} whose source changed during the batch
+     * is synced exactly once, with the latest source value, in a single
+     * propagation wave. A binding that depends on another binding is synced
+     * after it, so that chained bindings see each other's final values.
+     *
+     * @throws IllegalStateException if no batch has begun
+     */
+    public final void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch in progress");
+        }
+
+        if (batchDepth > 1) {
+            batchDepth--;
+            return;
+        }
+
+        AutoBinding[] dirty = batchScheduler.takeDirty();
+        batchDepth = 0;
+        batchScheduler = null;
+
+        // if a sync throws, the bindings not yet synced are handed back to
+        // their own schedulers, or synced directly, rather than left waiting
+        // for a flush of the batch that will never come
+        Propagation.run(dirty);
+    }
+
+    /**
+     * Runs the given {@code Runnable} within a batch of changes, ending the
+     * batch even if the {@code Runnable} throws an exception.
+     *
+     * @param runnable the {@code Runnable} to run
+     * @throws IllegalArgumentException if {@code runnable} is {@code null}
+     * @see #beginBatch
+     */
+    public final void runBatched(Runnable runnable) {
+        if (runnable == null) {
+            throw new IllegalArgumentException("Runnable must be non-null");
+        }
+
+        beginBatch();
+        try {
+            runnable.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Returns whether this group is within a batch of changes.
+     *
+     * @return whether this group is within a batch of changes
+     * @see #beginBatch
+     */
+    public final boolean isBatching() {
+        return batchDepth != 0;
+    }
+
+    final BindingScheduler getBatchScheduler() {
+        return batchScheduler;
     }
 
     /**
      * Calls {@code bind} on all unbound bindings in the group.
      */
     public void bind() {
-        List<Binding> toBind = new ArrayList<Binding>(unbound);
-        for (Binding binding : toBind) {
-            binding.bind();
-        }
+        syncAll(true);
     }
 
     /**
      * Calls {@code unbind} on all bound bindings in the group.
      */
     public void unbind() {
-        List<Binding> toUnbind = new ArrayList<Binding>(bound);
-        for (Binding binding : toUnbind) {
+        syncAll(false);
+    }
+
+    private void syncAll(boolean bind) {
+        // listeners may add or remove members as we go, so walk a snapshot,
+        // skipping members removed since it was taken; a change in
+        // membership replaces the snapshot rather than altering it
+        if (snapshot == null) {
+            snapshot = ordered.toArray(new Member[ordered.size()]);
+        }
+
+        for (Member member : snapshot) {
+            if (member.bound != bind && members.get(member.binding) == member) {
+                toggle(member.binding, bind);
+            }
+        }
+    }
+
+    private static void toggle(Binding binding, boolean bind) {
+        if (bind) {
+            binding.bind();
+        } else {
             binding.unbind();
         }
     }
@@ -221,6 +565,26 @@ public class BindingGroup {
         return handler;
     }
 
+    private void setBound(Binding binding, boolean bound) {
+        Member member = members.get(binding);
+        if (member != null) {
+            member.bound = bound;
+        }
+    }
+
+    // A binding in the group, with whether it is bound. Members compare by
+    // identity, whatever the binding's equals does, so they can be kept
+    // in the insertion-ordered sets above.
+    private static final class Member {
+        final Binding binding;
+        boolean bound;
+
+        Member(Binding binding) {
+            this.binding = binding;
+            this.bound = binding.isBound();
+        }
+    }
+
     private class Handler implements BindingListener {
         public void syncFailed(Binding binding, Binding.SyncFailure failure) {
             if (listeners == null) {
@@ -263,8 +627,7 @@ public class BindingGroup {
         }
 
         public void bindingBecameBound(Binding binding) {
-            unbound.remove(binding);
-            bound.add(binding);
+            setBound(binding, true);
 
             if (listeners == null) {
                 return;
@@ -276,8 +639,7 @@ public class BindingGroup {
         }
 
         public void bindingBecameUnbound(Binding binding) {
-            bound.remove(binding);
-            unbound.add(binding);
+            setBound(binding, false);
 
             if (listeners == null) {
                 return;
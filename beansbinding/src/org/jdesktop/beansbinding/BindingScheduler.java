@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.beansbinding;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * {@code BindingScheduler} coalesces the automatic syncing of
+ * {@code AutoBindings} that have opted into it. Instead of syncing the
+ * target each time the source changes, such a binding is marked dirty
+ * and synced once, with the latest source value, the next time the
+ * scheduler is flushed. However many times the source changed in the
+ * meantime, listeners are notified of a single {@code synced} or
+ * {@code syncFailed} per flush.
+ * <p>
+ * A subclass decides when a flush happens by implementing
+ * {@link #requestFlush}, which is called once whenever a binding is marked
+ * dirty and no flush is yet pending. It is expected to arrange for
+ * {@link #flush} to be called later, on the thread that the bindings are
+ * used from. {@link #create(Executor)} creates a scheduler that flushes on
+ * a given {@code Executor}; {@code SwingBindings} provides schedulers that
+ * flush on the event dispatch thread.
+ *
+ * @see AutoBinding#setScheduler
+ * @see BindingGroup#setScheduler
+ */
+public abstract class BindingScheduler {
+
+    private final Set<AutoBinding> dirty = new LinkedHashSet<AutoBinding>();
+    private boolean flushRequested;
+
+    /**
+     * Creates a {@code BindingScheduler}.
+     */
+    protected BindingScheduler() {}
+
+    /**
+     * Creates a {@code BindingScheduler} that flushes by submitting a task to
+     * the given {@code Executor}.
+     *
+     * @param executor the {@code Executor} to flush on
+     * @return the scheduler
+     * @throws IllegalArgumentException if {@code executor} is {@code null}
+     */
+    public static BindingScheduler create(final Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must be non-null");
+        }
+
+        return new BindingScheduler() {
+            private final Runnable flusher = new Runnable() {
+                public void run() {
+                    flush();
+                }
+            };
+
+            protected void requestFlush() {
+                executor.execute(flusher);
+            }
+        };
+    }
+
+    /**
+     * Called when a binding has been marked dirty and no flush is pending.
+     * Implementations should arrange for {@link #flush} to be called.
+     */
+    protected abstract void requestFlush();
+
+    /**
+     * Syncs every binding marked dirty since the last flush, in the order in
+     * which they were first marked, except that a binding that depends on
+     * another is synced after it. Bindings that were unbound in the
+     * meantime are skipped. If a sync throws, the bindings not yet synced
+     * are marked dirty again, to be synced by the next flush.
+     */
+    public final void flush() {
+        Propagation.run(takeDirty());
+    }
+
+    final AutoBinding[] takeDirty() {
+        synchronized (dirty) {
+            flushRequested = false;
+            AutoBinding[] bindings = dirty.toArray(new AutoBinding[dirty.size()]);
+            dirty.clear();
+            return bindings;
+        }
+    }
+
+    /**
+     * Returns whether any binding is waiting to be synced.
+     *
+     * @return whether any binding is waiting to be synced
+     */
+    public final boolean hasPending() {
+        synchronized (dirty) {
+            return !dirty.isEmpty();
+        }
+    }
+
+    final void schedule(AutoBinding binding) {
+        boolean request;
+
+        synchronized (dirty) {
+            dirty.add(binding);
+            request = !flushRequested;
+            flushRequested = true;
+        }
+
+        if (request) {
+            requestFlush();
+        }
+    }
+
+    final void cancel(AutoBinding binding) {
+        synchronized (dirty) {
+            dirty.remove(binding);
+        }
+    }
+}
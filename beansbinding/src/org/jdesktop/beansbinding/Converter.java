@@ -169,62 +169,6 @@ public abstract class Converter<S, T> {
     };
 
     static final Object defaultConvert(Object source, Class<?> targetType) {
-        Class sourceType = source.getClass();
-
-        if (sourceType == targetType) {
-            return source;
-        }
-
-        if (targetType == String.class) {
-            if (sourceType == Byte.class) {
-                return BYTE_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Short.class) {
-                return SHORT_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Integer.class) {
-                return INT_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Long.class) {
-                return LONG_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Float.class) {
-                return FLOAT_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Double.class) {
-                return DOUBLE_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Boolean.class) {
-                return BOOLEAN_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == Character.class) {
-                return CHAR_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == BigInteger.class) {
-                return BIGINTEGER_TO_STRING_CONVERTER.convertForward(source);
-            } else if (sourceType == BigDecimal.class) {
-                return BIGDECIMAL_TO_STRING_CONVERTER.convertForward(source);
-            }
-        } else if (sourceType == String.class) {
-            if (targetType == Byte.class) {
-                return BYTE_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Short.class) {
-                return SHORT_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Integer.class) {
-                return INT_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Long.class) {
-                return LONG_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Float.class) {
-                return FLOAT_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Double.class) {
-                return DOUBLE_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Boolean.class) {
-                return BOOLEAN_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == Character.class) {
-                return CHAR_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == BigInteger.class) {
-                return BIGINTEGER_TO_STRING_CONVERTER.convertReverse(source);
-            } else if (targetType == BigDecimal.class) {
-                return BIGDECIMAL_TO_STRING_CONVERTER.convertReverse(source);
-            }
-        } else if (sourceType == Integer.class && targetType == Boolean.class) {
-            return INT_TO_BOOLEAN_CONVERTER.convertForward(source);
-        } else if (sourceType == Boolean.class && targetType == Integer.class) {
-            return INT_TO_BOOLEAN_CONVERTER.convertReverse(source);
-        }
-
-        return source;
+        return ConverterRegistry.getDefault().convert(source, targetType);
     }
 }
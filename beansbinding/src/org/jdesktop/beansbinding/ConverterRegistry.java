@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.beansbinding;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@code ConverterRegistry} maintains the {@code Converters} used by a
+ * {@code Binding} that has no {@code Converter} of its own. Registering a
+ * {@code Converter} for a pair of types makes it available for conversion in
+ * both directions: its {@code convertForward} method is used to convert from
+ * the source type to the target type and its {@code convertReverse} method to
+ * convert back.
+ * <p>
+ * The {@link #getDefault default} registry is shared by all {@code Bindings}
+ * and contains the converters between the primitive wrapper types,
+ * {@code BigInteger}, {@code BigDecimal} and {@code String}, and between
+ * {@code Integer} and {@code Boolean}. A registry can also be created with a
+ * parent registry, to which lookups fall back when the registry itself has
+ * no suitable converter; such a registry can be set on a {@code BindingGroup}
+ * to apply to the bindings in that group.
+ * <p>
+ * Lookups are resolved by first looking for a converter registered for the
+ * exact pair of types, then for converters registered for superclasses and
+ * interfaces of the value's type, and finally in the parent registry. The
+ * result of each lookup, including the absence of a converter, is cached
+ * until a converter is next registered or unregistered with this registry
+ * or any of its ancestors.
+ * <p>
+ * {@code ConverterRegistry} is thread safe.
+ *
+ * @see Binding#setConverterRegistry
+ * @see BindingGroup#setConverterRegistry
+ */
+public final class ConverterRegistry {
+
+    private static final Converter<?, ?> NONE = new Converter<Object, Object>() {
+        public Object convertForward(Object value) {
+            throw new AssertionError();
+        }
+
+        public Object convertReverse(Object value) {
+            throw new AssertionError();
+        }
+    };
+
+    private static final ConverterRegistry DEFAULT = createDefault();
+
+    private final ConverterRegistry parent;
+    private final Map<Class<?>, Map<Class<?>, Converter<?, ?>>> registered =
+            new HashMap<Class<?>, Map<Class<?>, Converter<?, ?>>>();
+    private volatile Cache cache = new Cache(0);
+    private volatile int modCount;
+
+    /**
+     * Creates a {@code ConverterRegistry} whose lookups fall back to the
+     * {@link #getDefault default} registry.
+     */
+    public ConverterRegistry() {
+        this(DEFAULT);
+    }
+
+    /**
+     * Creates a {@code ConverterRegistry} whose lookups fall back to the
+     * given registry.
+     *
+     * @param parent the parent registry, or {@code null} for none
+     */
+    public ConverterRegistry(ConverterRegistry parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the registry shared by all {@code Bindings} that don't have
+     * a registry of their own. Converters registered with the default
+     * registry are therefore available globally.
+     *
+     * @return the default registry
+     */
+    public static ConverterRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the parent of this registry, which may be {@code null}.
+     *
+     * @return the parent registry, or {@code null}
+     */
+    public ConverterRegistry getParent() {
+        return parent;
+    }
+
+    /**
+     * Registers a {@code Converter} for converting between the given types.
+     * Replaces any converter previously registered for the same pair of types
+     * (in either order).
+     *
+     * @param sourceType the {@code Converter's} source type
+     * @param targetType the {@code Converter's} target type
+     * @param converter the converter
+     * @throws IllegalArgumentException if any argument is {@code null}
+     */
+    public <S, T> void register(Class<S> sourceType, Class<T> targetType, Converter<S, T> converter) {
+        if (sourceType == null || targetType == null || converter == null) {
+            throw new IllegalArgumentException("types and converter must be non-null");
+        }
+
+        synchronized (registered) {
+            put(sourceType, targetType, converter);
+            put(targetType, sourceType, new ReverseConverter<T, S>(converter));
+            modCount++;
+        }
+    }
+
+    /**
+     * Removes the {@code Converter} registered for the given types, if any.
+     *
+     * @param sourceType the {@code Converter's} source type
+     * @param targetType the {@code Converter's} target type
+     */
+    public void unregister(Class<?> sourceType, Class<?> targetType) {
+        synchronized (registered) {
+            remove(sourceType, targetType);
+            remove(targetType, sourceType);
+            modCount++;
+        }
+    }
+
+    private void put(Class<?> from, Class<?> to, Converter<?, ?> converter) {
+        Map<Class<?>, Converter<?, ?>> targets = registered.get(from);
+        if (targets == null) {
+            targets = new HashMap<Class<?>, Converter<?, ?>>();
+            registered.put(from, targets);
+        }
+
+        targets.put(to, converter);
+    }
+
+    private void remove(Class<?> from, Class<?> to) {
+        Map<Class<?>, Converter<?, ?>> targets = registered.get(from);
+        if (targets != null) {
+            targets.remove(to);
+        }
+    }
+
+    int getModCount() {
+        return parent == null ? modCount : modCount + parent.getModCount();
+    }
+
+    /**
+     * Returns a {@code Converter} whose {@code convertForward} method converts
+     * values of the given value type to the given target type, or {@code null}
+     * if no suitable converter is available from this registry or its ancestors.
+     * A {@code Converter} is never returned for identical types.
+     *
+     * @param valueType the type of value to convert
+     * @param targetType the type to convert to
+     * @return the converter, or {@code null}
+     */
+    public Converter<?, ?> getConverter(Class<?> valueType, Class<?> targetType) {
+        if (valueType == targetType) {
+            return null;
+        }
+
+        // A lookup is cached in the cache of the modCount read before it,
+        // so a result that a concurrent registration makes stale is only
+        // seen by lookups that started before the registration.
+        int mc = getModCount();
+        Cache current = cache;
+        if (current.modCount != mc) {
+            Cache fresh = new Cache(mc);
+            if (mc > current.modCount) {
+                // modCounts only grow; never replace a newer cache
+                cache = fresh;
+            }
+            current = fresh;
+        }
+
+        Map<Class<?>, Converter<?, ?>> targets = current.lookups.get(valueType);
+        if (targets == null) {
+            targets = new ConcurrentHashMap<Class<?>, Converter<?, ?>>();
+            Map<Class<?>, Converter<?, ?>> raced = current.lookups.putIfAbsent(valueType, targets);
+            if (raced != null) {
+                targets = raced;
+            }
+        }
+
+        Converter<?, ?> converter = targets.get(targetType);
+        if (converter == null) {
+            converter = lookup(valueType, targetType);
+            targets.put(targetType, converter == null ? NONE : converter);
+        }
+
+        return converter == NONE ? null : converter;
+    }
+
+    /**
+     * The results of the lookups made while the registry and its ancestors
+     * had a given total modCount.
+     */
+    private static final class Cache {
+        private final int modCount;
+        private final ConcurrentMap<Class<?>, Map<Class<?>, Converter<?, ?>>> lookups =
+                new ConcurrentHashMap<Class<?>, Map<Class<?>, Converter<?, ?>>>();
+
+        private Cache(int modCount) {
+            this.modCount = modCount;
+        }
+    }
+
+    private Converter<?, ?> lookup(Class<?> valueType, Class<?> targetType) {
+        Converter<?, ?> converter;
+
+        synchronized (registered) {
+            converter = find(valueType, targetType, new HashSet<Class<?>>());
+        }
+
+        if (converter == null && parent != null) {
+            converter = parent.getConverter(valueType, targetType);
+        }
+
+        return converter;
+    }
+
+    private Converter<?, ?> find(Class<?> type, Class<?> targetType, Set<Class<?>> visited) {
+        if (type == null || !visited.add(type)) {
+            return null;
+        }
+
+        Map<Class<?>, Converter<?, ?>> targets = registered.get(type);
+        if (targets != null) {
+            Converter<?, ?> converter = targets.get(targetType);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        Converter<?, ?> converter = find(type.getSuperclass(), targetType, visited);
+        if (converter != null) {
+            return converter;
+        }
+
+        for (Class<?> iface : type.getInterfaces()) {
+            converter = find(iface, targetType, visited);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Converts the given value to the target type using the {@code Converter}
+     * found by {@link #getConverter}. Returns the value itself if no converter
+     * is found.
+     *
+     * @param value the value to convert, {@code non-null}
+     * @param targetType the type to convert to
+     * @return the converted value
+     * @throws RuntimeException if thrown by the converter
+     */
+    @SuppressWarnings("unchecked")
+    public Object convert(Object value, Class<?> targetType) {
+        Converter<Object, Object> converter =
+                (Converter<Object, Object>)getConverter(value.getClass(), targetType);
+        return converter == null ? value : converter.convertForward(value);
+    }
+
+    private static final class ReverseConverter<S, T> extends Converter<S, T> {
+        private final Converter<T, S> converter;
+
+        ReverseConverter(Converter<T, S> converter) {
+            this.converter = converter;
+        }
+
+        public T convertForward(S value) {
+            return converter.convertReverse(value);
+        }
+
+        public S convertReverse(T value) {
+            return converter.convertForward(value);
+        }
+    }
+
+    // the built-in converters are untyped
+    @SuppressWarnings("unchecked")
+    private void registerDefault(Class<?> sourceType, Class<?> targetType, Converter<?, ?> converter) {
+        register((Class<Object>)sourceType, (Class<Object>)targetType, (Converter<Object, Object>)converter);
+    }
+
+    private static ConverterRegistry createDefault() {
+        ConverterRegistry registry = new ConverterRegistry(null);
+        registry.registerDefault(Byte.class, String.class, Converter.BYTE_TO_STRING_CONVERTER);
+        registry.registerDefault(Short.class, String.class, Converter.SHORT_TO_STRING_CONVERTER);
+        registry.registerDefault(Integer.class, String.class, Converter.INT_TO_STRING_CONVERTER);
+        registry.registerDefault(Long.class, String.class, Converter.LONG_TO_STRING_CONVERTER);
+        registry.registerDefault(Float.class, String.class, Converter.FLOAT_TO_STRING_CONVERTER);
+        registry.registerDefault(Double.class, String.class, Converter.DOUBLE_TO_STRING_CONVERTER);
+        registry.registerDefault(Boolean.class, String.class, Converter.BOOLEAN_TO_STRING_CONVERTER);
+        registry.registerDefault(Character.class, String.class, Converter.CHAR_TO_STRING_CONVERTER);
+        registry.registerDefault(BigInteger.class, String.class, Converter.BIGINTEGER_TO_STRING_CONVERTER);
+        registry.registerDefault(BigDecimal.class, String.class, Converter.BIGDECIMAL_TO_STRING_CONVERTER);
+        registry.registerDefault(Integer.class, Boolean.class, Converter.INT_TO_BOOLEAN_CONVERTER);
+        return registry;
+    }
+}
@@ -6,6 +6,11 @@
 package org.jdesktop.beansbinding;
 
 import org.jdesktop.el.impl.ExpressionFactoryImpl;
+import org.jdesktop.el.impl.lang.ExpressionBuilder;
+import org.jdesktop.el.impl.parser.AstFunction;
+import org.jdesktop.el.impl.parser.AstIdentifier;
+import org.jdesktop.el.impl.parser.Node;
+import org.jdesktop.el.impl.parser.NodeVisitor;
 import org.jdesktop.el.ELContext;
 import org.jdesktop.el.ELException;
 import org.jdesktop.el.Expression;
@@ -15,8 +20,10 @@ import java.beans.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListListener;
 import org.jdesktop.observablecollections.ObservableMap;
-import org.jdesktop.observablecollections.ObservableMapListener;
+import org.jdesktop.observablecollections.ObservableMapChangeListener;
 import static org.jdesktop.beansbinding.PropertyStateEvent.UNREADABLE;
 import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
 
@@ -137,6 +144,13 @@ import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
  * {@code ELProperty} can only respond to changes in {@code Maps}
  * if they are instances of {@link org.jdesktop.observablecollections.ObservableMap}.
  * <p>
+ * Objects in the path can also be instances of {@code List} or arrays, indexed
+ * with the bracket syntax (for example {@code "${orders[0].total}"}). {@code ELProperty}
+ * can only respond to changes in {@code Lists} if they are instances of
+ * {@link org.jdesktop.observablecollections.ObservableList}, in which case
+ * only changes affecting the indices used by the expression cause it to be
+ * re-evaluated.
+ * <p>
  * Some methods in this class document that they can throw
  * {@code PropertyResolutionException} if an exception occurs while trying
  * to evaluate the expression. The throwing of this exception represents an abnormal
@@ -159,9 +173,12 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
     private final ELContext context = new TempELContext();
     private IdentityHashMap<S, SourceEntry> map = new IdentityHashMap<S, SourceEntry>();
     private static final Object NOREAD = new Object();
+    private static final Set<String> NO_NAMES = Collections.emptySet();
+    private Set<String> sourcePropertyNames;
 
     private final class SourceEntry implements PropertyChangeListener,
-                                               ObservableMapListener,
+                                               ObservableMapChangeListener,
+                                               ObservableListListener,
                                                PropertyStateListener {
 
         private S source;
@@ -172,6 +189,8 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         private boolean ignoreChange;
         private Set<RegisteredListener> registeredListeners;
         private Set<RegisteredListener> lastRegisteredListeners;
+        private Map<ObservableList, SortedSet<Integer>> watchedIndices;
+        private Map<ObservableList, SortedSet<Integer>> lastWatchedIndices;
 
         private SourceEntry(S source) {
             this.source = source;
@@ -181,6 +200,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             }
 
             registeredListeners = new HashSet<RegisteredListener>(1);
+            watchedIndices = new IdentityHashMap<ObservableList, SortedSet<Integer>>(1);
             updateCachedBean();
             updateCache();
         }
@@ -190,12 +210,17 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 unregisterListener(rl, this);
             }
 
+            for (ObservableList list : watchedIndices.keySet()) {
+                list.removeObservableListListener(this);
+            }
+
             if (baseProperty != null) {
                 baseProperty.removePropertyStateListener(source, this);
             }
 
             cachedBean = null;
             registeredListeners = null;
+            watchedIndices = null;
             cachedValue = null;
         }
 
@@ -210,6 +235,8 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         private void updateCache() {
             lastRegisteredListeners = registeredListeners;
             registeredListeners = new HashSet<RegisteredListener>(lastRegisteredListeners.size());
+            lastWatchedIndices = watchedIndices;
+            watchedIndices = new IdentityHashMap<ObservableList, SortedSet<Integer>>(lastWatchedIndices.size());
             List<ResolvedProperty> resolvedProperties = null;
 
             try {
@@ -243,7 +270,12 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 unregisterListener(listener, this);
             }
 
+            for (ObservableList list : lastWatchedIndices.keySet()) {
+                list.removeObservableListListener(this);
+            }
+
             lastRegisteredListeners = null;
+            lastWatchedIndices = null;
         }
 
         // flag -1 - validate all
@@ -297,9 +329,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             validateCache(0);
             Object oldValue = cachedValue;
             boolean wasWriteable = cachedIsWriteable;
+            Class<?> oldWriteType = cachedWriteType;
             updateCachedBean();
             updateCache();
-            notifyListeners(wasWriteable, oldValue, this);
+            notifyListeners(wasWriteable, oldValue, oldWriteType, this);
         }
 
         private void processSourceChanged() {
@@ -307,9 +340,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
             boolean wasWriteable = cachedIsWriteable;
             Object oldValue = cachedValue;
+            Class<?> oldWriteType = cachedWriteType;
 
             updateCache();
-            notifyListeners(wasWriteable, oldValue, this);
+            notifyListeners(wasWriteable, oldValue, oldWriteType, this);
         }
 
         private void sourceChanged(Object source, String property) {
@@ -350,6 +384,55 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 sourceChanged(map, (String)key);
             }
         }
+
+        public void mapChanged(ObservableMap map, Set<?> keys) {
+            if (ignoreChange) {
+                return;
+            }
+
+            // a single re-evaluation for all of the keys read from the map
+            for (RegisteredListener rl : registeredListeners) {
+                if (rl.getSource() == map && keys.contains(rl.getProperty())) {
+                    processSourceChanged();
+                    break;
+                }
+            }
+        }
+
+        private void listChanged(ObservableList list, int from, int to) {
+            if (ignoreChange) {
+                return;
+            }
+
+            SortedSet<Integer> indices = watchedIndices.get(list);
+            if (indices == null) {
+                return;
+            }
+
+            SortedSet<Integer> affected = indices.tailSet(from);
+            if (!affected.isEmpty() && affected.first() <= to) {
+                processSourceChanged();
+            }
+        }
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            // elements at and after index have shifted
+            listChanged(list, index, Integer.MAX_VALUE);
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            // elements at and after index have shifted
+            listChanged(list, index, Integer.MAX_VALUE);
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            listChanged(list, index, index);
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            // the element itself is unchanged; any of its properties used
+            // by the expression are listened to directly
+        }
     }
 
     /**
@@ -511,9 +594,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             }
  
             Object oldValue = entry.cachedValue;
+            Class<?> oldWriteType = entry.cachedWriteType;
             // PENDING(shannonh) - too heavyweight; should just update cached value
             entry.updateCache();
-            notifyListeners(entry.cachedIsWriteable, oldValue, entry);
+            notifyListeners(entry.cachedIsWriteable, oldValue, oldWriteType, entry);
 
             return;
         }
@@ -661,7 +745,67 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         return oldValue == null || newValue == null || !oldValue.equals(newValue);
     }
 
-    private void notifyListeners(boolean wasWriteable, Object oldValue, SourceEntry entry) {
+    /**
+     * Returns the identifiers in this {@code ELProperty's} expression, which
+     * are the properties of the source that it reads, or {@code null} if the
+     * expression calls a function. When the expression is relative to a base
+     * property, returns the names returned by the base property.
+     *
+     * @return the names of the source properties, or {@code null} if unknown
+     */
+    public Set<String> getSourcePropertyNames() {
+        if (baseProperty != null) {
+            return baseProperty.getSourcePropertyNames();
+        }
+
+        if (sourcePropertyNames == null) {
+            final Set<String> names = new HashSet<String>();
+            final boolean[] unknown = new boolean[1];
+
+            try {
+                ExpressionBuilder.createNode(expression.getExpressionString()).accept(new NodeVisitor() {
+                    public void visit(Node node) {
+                        if (node instanceof AstIdentifier) {
+                            names.add(((AstIdentifier)node).getImage());
+                        } else if (node instanceof AstFunction) {
+                            // a function could read anything
+                            unknown[0] = true;
+                        }
+                    }
+                });
+            } catch (ELException ele) {
+                unknown[0] = true;
+            }
+
+            sourcePropertyNames = unknown[0] ? NO_NAMES : Collections.unmodifiableSet(names);
+        }
+
+        return sourcePropertyNames == NO_NAMES ? null : sourcePropertyNames;
+    }
+
+    /**
+     * Adds the objects that the expression currently depends on for the
+     * given source to the given collection. Only known while listeners
+     * are registered for the source.
+     */
+    void collectDependencies(S source, Collection<Object> out) {
+        SourceEntry entry = map.get(source);
+        if (entry == null) {
+            return;
+        }
+
+        if (baseProperty != null) {
+            Propagation.collectDependencies(baseProperty, source, out);
+        }
+
+        for (RegisteredListener rl : entry.registeredListeners) {
+            out.add(rl.getSource());
+        }
+
+        out.addAll(entry.watchedIndices.keySet());
+    }
+
+    private void notifyListeners(boolean wasWriteable, Object oldValue, Class<?> oldWriteType, SourceEntry entry) {
         PropertyStateListener[] listeners = getPropertyStateListeners(entry.source);
 
         if (listeners == null || listeners.length == 0) {
@@ -684,6 +828,9 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                                                         newValue,
                                                         writeableChanged,
                                                         entry.cachedIsWriteable);
+        // the expression is re-resolved on every change; report a
+        // path change only when it resolves to a different write type
+        pse.setPathChanged(oldWriteType != entry.cachedWriteType);
 
         this.firePropertyStateChange(pse);
     }
@@ -756,7 +903,11 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         if (source != null && property instanceof String) {
             String sProp = (String)property;
 
-            if (source instanceof ObservableMap) {
+            if ((source instanceof List || source.getClass().isArray()) && TempELContext.isIndex(sProp)) {
+                if (source instanceof ObservableList) {
+                    registerIndexListener((ObservableList)source, toIndex(sProp), entry);
+                }
+            } else if (source instanceof ObservableMap) {
                 RegisteredListener rl = new RegisteredListener(source, sProp);
 
                 if (!entry.registeredListeners.contains(rl)) {
@@ -779,7 +930,38 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                     entry.registeredListeners.add(rl);
                 }
             }
+        } else if (source instanceof ObservableList && TempELContext.isIndex(property)) {
+            registerIndexListener((ObservableList)source, toIndex(property), entry);
+        }
+    }
+
+    // Converts a property accepted by TempELContext.isIndex to an index, as
+    // the EL list resolver does.
+    private static int toIndex(Object property) {
+        if (property instanceof Character) {
+            return ((Character)property).charValue();
+        } else if (property instanceof Number) {
+            return ((Number)property).intValue();
+        } else {
+            return Integer.parseInt((String)property);
+        }
+    }
+
+    // The entry listens to each list once, however many of its indices
+    // the expression reads.
+    private void registerIndexListener(ObservableList list, int index, SourceEntry entry) {
+        SortedSet<Integer> indices = entry.watchedIndices.get(list);
+
+        if (indices == null) {
+            if (entry.lastWatchedIndices.remove(list) == null) {
+                list.addObservableListListener(entry);
+            }
+
+            indices = new TreeSet<Integer>();
+            entry.watchedIndices.put(list, indices);
         }
+
+        indices.add(index);
     }
 
     private void unregisterListener(RegisteredListener rl, SourceEntry entry) {
@@ -905,7 +1087,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
         public int hashCode() {
             int result = 17;
-            result = 37 * result + source.hashCode();
+            result = 37 * result + System.identityHashCode(source);
             if (property != null) {
                 result = 37 * result + property.hashCode();
             }
@@ -915,7 +1097,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         public String toString() {
             return "RegisteredListener [" +
                     " source=" + source +
-                    " property=" + property + 
+                    " property=" + property +
                     "]";
         }
     }
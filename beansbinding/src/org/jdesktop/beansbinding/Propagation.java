@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.beansbinding;
+
+import java.util.*;
+
+/**
+ * Propagates the source changes flushed by a {@code BindingScheduler}, or at
+ * the end of a batch, through chains of {@code AutoBindings} in topological
+ * order, so that each binding is synced once per flush and never sees a mix
+ * of updated and stale upstream values.
+ * <p>
+ * The flushed bindings start a wave. While the wave runs, any
+ * {@code AutoBinding} whose source changes as a consequence is queued in the
+ * wave rather than synced immediately, and queued bindings are synced in
+ * order of rank. Waves are confined to the thread they start on. Source
+ * changes outside of a wave are synced directly, without any of this.
+ * <p>
+ * The dependency graph is only known for the duration of a wave, and is
+ * derived from the bound bindings the wave knows of: those it has queued,
+ * and the other members of their groups. Binding {@code B} depends on
+ * binding {@code A} when {@code A's} target object is {@code B's} source
+ * object, or is one of the objects that {@code B's} source property
+ * currently reads through (the beans along a {@code BeanProperty's} path,
+ * or those an {@code ELProperty's} expression has registered listeners on).
+ * A binding's rank is one more than the highest rank among the bindings it
+ * depends on.
+ */
+final class Propagation {
+
+    private static final ThreadLocal<Propagation> CURRENT = new ThreadLocal<Propagation>();
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<Entry>();
+    private final Map<AutoBinding<?, ?, ?, ?>, Boolean> queued = new IdentityHashMap<AutoBinding<?, ?, ?, ?>, Boolean>();
+    private final Map<AutoBinding<?, ?, ?, ?>, Integer> ranks = new IdentityHashMap<AutoBinding<?, ?, ?, ?>, Integer>();
+    // the bound bindings the wave knows of, by target object
+    private final Map<Object, List<AutoBinding<?, ?, ?, ?>>> byTarget =
+            new IdentityHashMap<Object, List<AutoBinding<?, ?, ?, ?>>>();
+    // the bindings and groups already added to byTarget
+    private final Map<Object, Boolean> indexed = new IdentityHashMap<Object, Boolean>();
+    private long sequence;
+
+    private Propagation() {}
+
+    /**
+     * Queues the binding in the current wave, if there is one.
+     *
+     * @return whether the binding was queued
+     */
+    static boolean defer(AutoBinding<?, ?, ?, ?> binding) {
+        Propagation wave = CURRENT.get();
+        if (wave == null) {
+            return false;
+        }
+
+        wave.enqueue(binding);
+        return true;
+    }
+
+    /**
+     * Syncs the given bindings, and everything that changes as a consequence,
+     * in a wave. Joins the current wave if there is one. If a sync throws,
+     * the bindings still queued are handed back to be synced without the
+     * wave.
+     */
+    static void run(AutoBinding<?, ?, ?, ?>... bindings) {
+        Propagation wave = CURRENT.get();
+        if (wave != null) {
+            for (AutoBinding<?, ?, ?, ?> binding : bindings) {
+                wave.enqueue(binding);
+            }
+            return;
+        }
+
+        wave = new Propagation();
+        CURRENT.set(wave);
+        boolean done = false;
+
+        try {
+            for (AutoBinding<?, ?, ?, ?> binding : bindings) {
+                wave.enqueue(binding);
+            }
+
+            Entry entry;
+            while ((entry = wave.queue.poll()) != null) {
+                wave.queued.put(entry.binding, Boolean.FALSE);
+                entry.binding.propagate();
+            }
+
+            done = true;
+        } finally {
+            CURRENT.set(null);
+
+            if (!done) {
+                wave.abandon();
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void collectDependencies(Property property, Object source, Collection<Object> out) {
+        if (property instanceof BeanProperty) {
+            ((BeanProperty)property).collectDependencies(source, out);
+        } else if (property instanceof ELProperty) {
+            ((ELProperty)property).collectDependencies(source, out);
+        }
+    }
+
+    private void abandon() {
+        // Nothing else knows about the bindings still queued, so hand each
+        // back to its scheduler, or sync it directly. The exception that
+        // ended the wave is already on its way; any further ones go to the
+        // uncaught exception handler.
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            try {
+                entry.binding.resume();
+            } catch (RuntimeException rte) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, rte);
+            }
+        }
+    }
+
+    private void enqueue(AutoBinding<?, ?, ?, ?> binding) {
+        if (queued.get(binding) == Boolean.TRUE) {
+            // already waiting its turn
+            return;
+        }
+
+        queued.put(binding, Boolean.TRUE);
+        index(binding);
+        queue.add(new Entry(binding, rank(binding, new IdentityHashMap<AutoBinding<?, ?, ?, ?>, Boolean>()), sequence++));
+    }
+
+    private void index(AutoBinding<?, ?, ?, ?> binding) {
+        boolean grew = indexBinding(binding);
+
+        for (BindingGroup group : binding.getGroups()) {
+            if (indexed.put(group, Boolean.TRUE) != null) {
+                continue;
+            }
+
+            for (Binding<?, ?, ?, ?> member : group.getBindings()) {
+                if (member instanceof AutoBinding) {
+                    grew |= indexBinding((AutoBinding<?, ?, ?, ?>)member);
+                }
+            }
+        }
+
+        if (grew) {
+            // ranks computed so far may have missed a producer, including
+            // those of the entries already queued
+            ranks.clear();
+            rerank();
+        }
+    }
+
+    private void rerank() {
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        List<Entry> entries = new ArrayList<Entry>(queue);
+        queue.clear();
+
+        for (Entry entry : entries) {
+            int rank = rank(entry.binding, new IdentityHashMap<AutoBinding<?, ?, ?, ?>, Boolean>());
+            queue.add(new Entry(entry.binding, rank, entry.sequence));
+        }
+    }
+
+    private boolean indexBinding(AutoBinding<?, ?, ?, ?> binding) {
+        if (indexed.put(binding, Boolean.TRUE) != null || !binding.isBound()) {
+            return false;
+        }
+
+        Object target = binding.getTargetObject();
+        if (target == null) {
+            return false;
+        }
+
+        List<AutoBinding<?, ?, ?, ?>> list = byTarget.get(target);
+        if (list == null) {
+            list = new ArrayList<AutoBinding<?, ?, ?, ?>>(1);
+            byTarget.put(target, list);
+        }
+        list.add(binding);
+        return true;
+    }
+
+    private int rank(AutoBinding<?, ?, ?, ?> binding, Map<AutoBinding<?, ?, ?, ?>, Boolean> path) {
+        Integer known = ranks.get(binding);
+        if (known != null) {
+            return known.intValue();
+        }
+
+        if (path.put(binding, Boolean.TRUE) != null) {
+            // a cycle; rank it as a root
+            return 0;
+        }
+
+        int rank = 0;
+        for (AutoBinding<?, ?, ?, ?> producer : producers(binding)) {
+            rank = Math.max(rank, rank(producer, path) + 1);
+        }
+
+        path.remove(binding);
+        ranks.put(binding, rank);
+        return rank;
+    }
+
+    private List<AutoBinding<?, ?, ?, ?>> producers(AutoBinding<?, ?, ?, ?> binding) {
+        List<Object> deps = new ArrayList<Object>();
+        Object source = binding.getSourceObject();
+        if (source != null) {
+            deps.add(source);
+        }
+        collectDependencies(binding.getSourceProperty(), source, deps);
+
+        List<AutoBinding<?, ?, ?, ?>> producers = new ArrayList<AutoBinding<?, ?, ?, ?>>();
+        Map<Object, Boolean> seen = new IdentityHashMap<Object, Boolean>();
+        for (Object dep : deps) {
+            if (seen.put(dep, Boolean.TRUE) != null) {
+                continue;
+            }
+
+            List<AutoBinding<?, ?, ?, ?>> list = byTarget.get(dep);
+            if (list != null) {
+                for (AutoBinding<?, ?, ?, ?> producer : list) {
+                    if (producer != binding) {
+                        producers.add(producer);
+                    }
+                }
+            }
+        }
+
+        return producers;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final AutoBinding<?, ?, ?, ?> binding;
+        private final int rank;
+        private final long sequence;
+
+        private Entry(AutoBinding<?, ?, ?, ?> binding, int rank, long sequence) {
+            this.binding = binding;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(Entry other) {
+            if (rank != other.rank) {
+                return rank < other.rank ? -1 : 1;
+            }
+
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
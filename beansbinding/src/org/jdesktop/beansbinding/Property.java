@@ -5,6 +5,8 @@
 
 package org.jdesktop.beansbinding;
 
+import java.util.Set;
+
 /**
  * {@code Property} defines a uniform way to access the value of a property.
  * A typical {@code Property} implemention allows you to create an immutable
@@ -116,4 +118,19 @@ public abstract class Property<S, V> {
      */
     public abstract PropertyStateListener[] getPropertyStateListeners(S source);
 
+    /**
+     * Returns the names of the properties of a source object that the value
+     * of this {@code Property} is derived from, as far as can be told without
+     * a source object, or {@code null} if they can't be told. Whoever is
+     * notified that a named property of a source object has changed can use
+     * this to skip {@code Properties} whose value can't have changed.
+     * <p>
+     * This implementation returns {@code null}.
+     *
+     * @return the names of the source properties, or {@code null} if unknown
+     */
+    public Set<String> getSourcePropertyNames() {
+        return null;
+    }
+
 }
@@ -29,6 +29,7 @@ public class PropertyStateEvent extends EventObject {
     private final Object newValue;
     private final boolean writeableChanged;
     private boolean isWriteable;
+    private boolean pathChanged = true;
 
     /**
      * Creates an instance of {@code PropertyStateEvent} characterizing a
@@ -218,6 +219,20 @@ public class PropertyStateEvent extends EventObject {
         return isWriteable;
     }
 
+    /**
+     * Returns whether the change may have involved the objects along the
+     * {@code Property's} path, rather than just the final value, and may
+     * therefore have changed the {@code Property's} write type. This is
+     * {@code true} unless the {@code Property} has indicated otherwise.
+     */
+    final boolean getPathChanged() {
+        return pathChanged;
+    }
+
+    final void setPathChanged(boolean pathChanged) {
+        this.pathChanged = pathChanged;
+    }
+
     /**
      * Returns a string representation of the {@code PropertyStateEvent}. This
      * method is intended to be used for debugging purposes only, and
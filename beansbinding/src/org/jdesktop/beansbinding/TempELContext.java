@@ -3,11 +3,13 @@ package org.jdesktop.beansbinding;
 import java.util.*;
 import java.beans.*;
 import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
+import org.jdesktop.el.ArrayELResolver;
 import org.jdesktop.el.BeanELResolver;
 import org.jdesktop.el.CompositeELResolver;
 import org.jdesktop.el.ELContext;
 import org.jdesktop.el.ELResolver;
 import org.jdesktop.el.FunctionMapper;
+import org.jdesktop.el.ListELResolver;
 import org.jdesktop.el.MapELResolver;
 import org.jdesktop.el.VariableMapper;
 import org.jdesktop.el.impl.lang.FunctionMapperImpl;
@@ -26,8 +28,9 @@ class TempELContext extends ELContext {
     
     public TempELContext() {
         resolver = new CompositeELResolver();
-        // PENDING(shannonh) - EL also has an ArrayELResolver. Should that be added too?
         resolver.add(new MapELResolver());
+        resolver.add(new IndexELResolver(new ListELResolver()));
+        resolver.add(new IndexELResolver(new ArrayELResolver()));
         resolver.add(new BeanDelegateELResolver());
     }
     
@@ -43,6 +46,73 @@ class TempELContext extends ELContext {
         return variableMapper;
     }
     
+    /**
+     * Returns whether or not the given property can be used as an index
+     * into a {@code List} or array.
+     */
+    static boolean isIndex(Object property) {
+        if (property instanceof Number || property instanceof Character) {
+            return true;
+        }
+
+        if (property instanceof String) {
+            String s = (String)property;
+            int len = s.length();
+            if (len == 0 || len > 9) {
+                return false;
+            }
+
+            for (int i = 0; i < len; i++) {
+                if (!Character.isDigit(s.charAt(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Restricts a {@code List} or array resolver to index properties, so that
+     * expressions such as {@code ${list.empty}} continue to be resolved
+     * as bean properties.
+     */
+    private static final class IndexELResolver extends ELResolver {
+        private final ELResolver delegate;
+
+        IndexELResolver(ELResolver delegate) {
+            this.delegate = delegate;
+        }
+
+        public Object getValue(ELContext context, Object base, Object property) {
+            return isIndex(property) ? delegate.getValue(context, base, property) : null;
+        }
+
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            return isIndex(property) ? delegate.getType(context, base, property) : null;
+        }
+
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+            if (isIndex(property)) {
+                delegate.setValue(context, base, property, value);
+            }
+        }
+
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            return isIndex(property) ? delegate.isReadOnly(context, base, property) : false;
+        }
+
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+            return delegate.getFeatureDescriptors(context, base);
+        }
+
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return delegate.getCommonPropertyType(context, base);
+        }
+    }
+
     private class BeanDelegateELResolver extends BeanELResolver {
         public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
             Iterator<FeatureDescriptor> superDescriptors = super.getFeatureDescriptors(context, base);
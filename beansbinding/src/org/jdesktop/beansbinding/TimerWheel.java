@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.beansbinding;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * A hashed timer wheel used for the delays of throttled and debounced
+ * {@code AutoBindings}. A single daemon thread advances the wheel one slot
+ * per tick, and the tasks expiring in a tick are run together as a single
+ * task submitted to the wheel's {@code Executor}. Scheduling and cancelling
+ * a task take constant time, so any number of bindings can share one wheel.
+ * Delays are rounded up to a whole number of ticks.
+ * <p>
+ * The {@link #getDefault default} wheel ticks every 10 milliseconds and runs
+ * expired tasks on its own thread. An {@code AutoBinding} that hasn't been
+ * given a wheel of its own uses the default wheel, unless its target object
+ * is an AWT component, in which case it uses the wheel returned by
+ * {@code SwingBindings.getEventQueueTimerWheel}, which runs tasks on the event
+ * dispatch thread. A binding whose target must be updated on some other
+ * particular thread should either have a {@code BindingDispatcher}, or use a
+ * wheel that runs tasks on that thread.
+ * <p>
+ * An exception thrown by an expired task is passed to the uncaught exception
+ * handler of the thread running it, and doesn't prevent the other tasks from
+ * running.
+ *
+ * @see AutoBinding#setThrottleDelay
+ * @see AutoBinding#setDebounceDelay
+ */
+public final class TimerWheel {
+
+    private static final int SLOTS = 512;
+
+    private static TimerWheel defaultWheel;
+    private static TimerWheel componentWheel;
+
+    private final long tickMillis;
+    private final Executor executor;
+    private final Timeout[] slots = new Timeout[SLOTS];
+    private int cursor;
+    private int pending;
+    private Thread thread;
+
+    /**
+     * Creates a {@code TimerWheel} with the given tick length, running expired
+     * tasks on the given {@code Executor}.
+     *
+     * @param tickMillis the length of a tick in milliseconds
+     * @param executor the {@code Executor} to run expired tasks on
+     * @throws IllegalArgumentException if {@code tickMillis} is not positive
+     *         or {@code executor} is {@code null}
+     */
+    public TimerWheel(long tickMillis, Executor executor) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must be non-null");
+        }
+
+        this.tickMillis = tickMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the wheel used by {@code AutoBindings} that haven't been given
+     * one of their own. It runs expired tasks on the wheel's own thread.
+     *
+     * @return the default wheel
+     */
+    public static synchronized TimerWheel getDefault() {
+        if (defaultWheel == null) {
+            defaultWheel = new TimerWheel(10, new Executor() {
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+        }
+
+        return defaultWheel;
+    }
+
+    /**
+     * Returns the wheel for an {@code AutoBinding} with the given target
+     * object that hasn't been given one of its own: the event dispatch thread
+     * wheel for an AWT component, and the default wheel otherwise.
+     */
+    static TimerWheel getDefault(Object target) {
+        if (target != null && isComponent(target.getClass())) {
+            TimerWheel wheel = getComponentWheel();
+            if (wheel != null) {
+                return wheel;
+            }
+        }
+
+        return getDefault();
+    }
+
+    // Checks by name, so as not to load AWT for other targets.
+    private static boolean isComponent(Class<?> type) {
+        for (; type != null; type = type.getSuperclass()) {
+            if (type.getName().equals("java.awt.Component")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static synchronized TimerWheel getComponentWheel() {
+        if (componentWheel == null) {
+            try {
+                Class<?> type = Class.forName("org.jdesktop.swingbinding.SwingBindings");
+                componentWheel = (TimerWheel)type.getMethod("getEventQueueTimerWheel").invoke(null);
+            } catch (Exception e) {
+                // swingbinding isn't available; fall back to the default
+                componentWheel = getDefault();
+            }
+        }
+
+        return componentWheel;
+    }
+
+    /**
+     * Schedules a task to run on this wheel's {@code Executor} once the given
+     * delay has elapsed.
+     */
+    Timeout schedule(Runnable task, long delayMillis) {
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+
+        synchronized (slots) {
+            Timeout timeout = new Timeout(task);
+            int slot = (int)((cursor + ticks) % SLOTS);
+            timeout.rounds = (ticks - 1) / SLOTS;
+            timeout.next = slots[slot];
+            slots[slot] = timeout;
+
+            if (thread == null) {
+                thread = new Thread(new Ticker(), "TimerWheel");
+                thread.setDaemon(true);
+                thread.start();
+            } else if (pending == 0) {
+                slots.notify();
+            }
+
+            pending++;
+
+            return timeout;
+        }
+    }
+
+    private Timeout advance() throws InterruptedException {
+        synchronized (slots) {
+            if (pending == 0) {
+                while (pending == 0) {
+                    slots.wait();
+                }
+
+                // restart the tick from now rather than advancing at once
+                return null;
+            }
+
+            cursor = (cursor + 1) % SLOTS;
+
+            Timeout expired = null;
+            Timeout prev = null;
+            Timeout timeout = slots[cursor];
+
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.cancelled || timeout.rounds == 0) {
+                    if (prev == null) {
+                        slots[cursor] = next;
+                    } else {
+                        prev.next = next;
+                    }
+
+                    pending--;
+
+                    if (!timeout.cancelled) {
+                        timeout.next = expired;
+                        expired = timeout;
+                    }
+                } else {
+                    timeout.rounds--;
+                    prev = timeout;
+                }
+
+                timeout = next;
+            }
+
+            return expired;
+        }
+    }
+
+    private final class Ticker implements Runnable {
+        public void run() {
+            long deadline = System.currentTimeMillis();
+
+            try {
+                while (true) {
+                    deadline += tickMillis;
+                    long sleep = deadline - System.currentTimeMillis();
+                    if (sleep > 0) {
+                        Thread.sleep(sleep);
+                    }
+
+                    final Timeout expired = advance();
+
+                    if (expired == null) {
+                        // nothing expired, or the wheel was idle; don't try to catch up
+                        deadline = Math.max(deadline, System.currentTimeMillis());
+                        continue;
+                    }
+
+                    try {
+                        executor.execute(new Runnable() {
+                            public void run() {
+                                for (Timeout t = expired; t != null; t = t.next) {
+                                    if (!t.cancelled) {
+                                        runTask(t.task);
+                                    }
+                                }
+                            }
+                        });
+                    } catch (RuntimeException re) {
+                        report(re);
+                    }
+                }
+            } catch (InterruptedException ie) {
+                // stop ticking
+            } finally {
+                synchronized (slots) {
+                    // the next schedule starts a new thread
+                    thread = null;
+                }
+            }
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException re) {
+            report(re);
+        }
+    }
+
+    // A task's failure mustn't stop the wheel, or the tasks expiring with
+    // it, so it goes to the uncaught exception handler instead.
+    private static void report(RuntimeException re) {
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, re);
+    }
+
+    /**
+     * A task scheduled on a {@code TimerWheel}.
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private long rounds;
+        private Timeout next;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Prevents the task from running, if it hasn't already.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
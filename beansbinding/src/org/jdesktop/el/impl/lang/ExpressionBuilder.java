@@ -42,6 +42,7 @@ public final class ExpressionBuilder implements NodeVisitor {
     private static final int SIZE = 5000;
     private static final Map cache = new ConcurrentHashMap(SIZE);
     private static final Map cache2 = new ConcurrentHashMap(SIZE);
+    private static final Map precompiled = new ConcurrentHashMap();
 
     private FunctionMapper fnMapper;
 
@@ -78,8 +79,11 @@ public final class ExpressionBuilder implements NodeVisitor {
             throw new ELException(MessageFactory.get("error.null"));
         }
 
-        Node n = (Node) cache.get(expr);
-        if (n == null && (n = (Node) cache2.get(expr)) == null) {
+        // precompiled trees come first, so that a populated store replaces
+        // any tree parsed for the same expression before it was populated
+        Node n = (Node) precompiled.get(expr);
+        if (n == null && (n = (Node) cache.get(expr)) == null
+                && (n = (Node) cache2.get(expr)) == null) {
             try {
                 n = (new ELParser(new StringReader(expr)))
                         .CompositeExpression();
@@ -124,6 +128,14 @@ public final class ExpressionBuilder implements NodeVisitor {
         return n;
     }
 
+    /**
+     * Registers a tree decoded from an {@link ExpressionStore}. Unlike parsed
+     * trees, precompiled trees are never evicted.
+     */
+    static void putPrecompiled(String expr, Node n) {
+        precompiled.put(expr, n);
+    }
+
     private void prepare(Node node) throws ELException {
         node.accept(this);
         if (this.fnMapper instanceof FunctionMapperFactory) {
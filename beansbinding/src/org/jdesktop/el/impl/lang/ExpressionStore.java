@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.el.impl.lang;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jdesktop.el.ELException;
+
+import org.jdesktop.el.impl.parser.AstCodec;
+import org.jdesktop.el.impl.parser.Node;
+
+/**
+ * A store of precompiled expression trees. A store is written once, typically
+ * at packaging time, with {@link #write}, and later opened with {@link #open}
+ * (which memory maps the file) or {@link #read}. Trees are decoded from the
+ * store without invoking the parser; {@link #populate} makes every tree in
+ * the store available to {@link ExpressionBuilder}.
+ * <p>
+ * Layout: a header of five ints (magic, version, string count, expression
+ * count, node data length), the string table as modified UTF-8 strings, an
+ * index of (expression string, node offset) int pairs, and the node data
+ * written by {@link AstCodec}.
+ */
+public final class ExpressionStore {
+
+    private static final int MAGIC = 0x454C5354;
+
+    private static final int VERSION = 1;
+
+    private final ByteBuffer nodeData;
+
+    private final String[] strings;
+
+    private final Map<String, Integer> offsets;
+
+    private ExpressionStore(ByteBuffer nodeData, String[] strings,
+            Map<String, Integer> offsets) {
+        this.nodeData = nodeData;
+        this.strings = strings;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Parses the given expressions and writes their trees to the stream.
+     * Duplicate expressions are written once.
+     *
+     * @throws ELException if one of the expressions can't be parsed
+     */
+    public static void write(Collection<String> expressions, OutputStream out)
+            throws IOException, ELException {
+        AstCodec.Encoder encoder = new AstCodec.Encoder();
+        Map<Integer, Integer> index = new HashMap<Integer, Integer>();
+
+        for (String expr : expressions) {
+            int exprIndex = encoder.intern(expr);
+            if (!index.containsKey(exprIndex)) {
+                Node n = ExpressionBuilder.createNode(expr);
+                index.put(exprIndex, encoder.encode(n));
+            }
+        }
+
+        List<String> strings = encoder.getStrings();
+        byte[] nodes = encoder.getNodeData();
+
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(strings.size());
+        dos.writeInt(index.size());
+        dos.writeInt(nodes.length);
+        for (String s : strings) {
+            dos.writeUTF(s);
+        }
+        for (Map.Entry<Integer, Integer> entry : index.entrySet()) {
+            dos.writeInt(entry.getKey());
+            dos.writeInt(entry.getValue());
+        }
+        dos.write(nodes);
+        dos.flush();
+    }
+
+    /**
+     * Memory maps the given store file.
+     */
+    public static ExpressionStore open(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a store from the given buffer, starting at its current position.
+     * Node data is not copied; the returned store keeps a view of the buffer.
+     */
+    public static ExpressionStore read(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        DataInputStream in = new DataInputStream(new BufferInputStream(header));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an expression store");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported expression store version " + version);
+        }
+
+        String[] strings = new String[in.readInt()];
+        int count = in.readInt();
+        int nodesLength = in.readInt();
+
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        Map<String, Integer> offsets = new HashMap<String, Integer>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String expr = strings[in.readInt()];
+            offsets.put(expr, in.readInt());
+        }
+
+        if (header.remaining() < nodesLength) {
+            throw new IOException("Truncated expression store");
+        }
+        ByteBuffer nodeData = header.slice();
+        nodeData.limit(nodesLength);
+
+        return new ExpressionStore(nodeData, strings, offsets);
+    }
+
+    /**
+     * Returns the expressions contained in this store.
+     */
+    public Set<String> getExpressions() {
+        return Collections.unmodifiableSet(this.offsets.keySet());
+    }
+
+    /**
+     * Decodes the tree for the given expression, or returns {@code null} if
+     * this store doesn't contain the expression.
+     */
+    public Node getNode(String expr) throws ELException {
+        Integer offset = this.offsets.get(expr);
+        if (offset == null) {
+            return null;
+        }
+        return AstCodec.decode(this.nodeData, offset, this.strings);
+    }
+
+    /**
+     * Decodes every tree in this store and makes it available to
+     * {@link ExpressionBuilder}, so that creating any of these expressions
+     * no longer requires parsing.
+     *
+     * @return the number of expressions made available
+     */
+    public int populate() throws ELException {
+        for (Map.Entry<String, Integer> entry : this.offsets.entrySet()) {
+            ExpressionBuilder.putPrecompiled(entry.getKey(),
+                    AstCodec.decode(this.nodeData, entry.getValue(), this.strings));
+        }
+        return this.offsets.size();
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        public int read(byte[] b, int off, int len) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.el.impl.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdesktop.el.ELException;
+
+/**
+ * Compact binary encoding of parsed expression trees, allowing a tree to be
+ * rebuilt without running the parser.
+ * <p>
+ * Each node is written as its tree constant, followed by a reference to its
+ * image in a shared string table, the prefix and local name for functions,
+ * and the number of children; children follow depth first. Integers are
+ * written as unsigned variable length quantities and string references are
+ * offset by one so that zero can represent {@code null}.
+ */
+public final class AstCodec implements ELParserTreeConstants {
+
+    private AstCodec() {
+    }
+
+    /**
+     * Accumulates encoded trees together with the string table they refer to.
+     */
+    public static final class Encoder {
+
+        private final Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+
+        private final List<String> strings = new ArrayList<String>();
+
+        private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+
+        /**
+         * Returns the index of the given string in the string table, adding
+         * it if necessary.
+         */
+        public int intern(String s) {
+            Integer index = this.stringIndex.get(s);
+            if (index == null) {
+                index = this.strings.size();
+                this.strings.add(s);
+                this.stringIndex.put(s, index);
+            }
+            return index;
+        }
+
+        /**
+         * Encodes the tree rooted at the given node and returns the offset of
+         * the encoded tree in the node data.
+         */
+        public int encode(Node node) throws ELException {
+            int offset = this.nodes.size();
+            this.write(node);
+            return offset;
+        }
+
+        public List<String> getStrings() {
+            return this.strings;
+        }
+
+        public byte[] getNodeData() {
+            return this.nodes.toByteArray();
+        }
+
+        private void write(Node node) throws ELException {
+            if (!(node instanceof SimpleNode)) {
+                throw new ELException("Unable to encode node " + node);
+            }
+
+            SimpleNode sn = (SimpleNode) node;
+            this.nodes.write(sn.id);
+            this.writeString(sn.image);
+
+            if (sn.id == JJTFUNCTION) {
+                AstFunction fn = (AstFunction) sn;
+                this.writeString(fn.prefix);
+                this.writeString(fn.localName);
+            }
+
+            int numChildren = sn.jjtGetNumChildren();
+            this.writeInt(numChildren);
+            for (int i = 0; i < numChildren; i++) {
+                this.write(sn.jjtGetChild(i));
+            }
+        }
+
+        private void writeString(String s) {
+            this.writeInt(s == null ? 0 : this.intern(s) + 1);
+        }
+
+        private void writeInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                this.nodes.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.nodes.write(value);
+        }
+    }
+
+    /**
+     * Rebuilds the tree encoded at the given offset of the node data. Only
+     * absolute reads are performed on the buffer, so a single buffer may be
+     * shared by concurrent callers.
+     *
+     * @param data the node data, as produced by {@link Encoder#getNodeData}
+     * @param offset the offset of the tree, as returned by {@link Encoder#encode}
+     * @param strings the string table the tree refers to
+     */
+    public static Node decode(ByteBuffer data, int offset, String[] strings)
+            throws ELException {
+        int[] pos = new int[] { offset };
+        try {
+            return read(data, pos, strings);
+        } catch (IndexOutOfBoundsException e) {
+            throw new ELException("Corrupt expression data at offset " + offset, e);
+        }
+    }
+
+    private static Node read(ByteBuffer data, int[] pos, String[] strings)
+            throws ELException {
+        int id = data.get(pos[0]++);
+        SimpleNode node = createNode(id);
+        node.image = readString(data, pos, strings);
+
+        if (id == JJTFUNCTION) {
+            AstFunction fn = (AstFunction) node;
+            fn.prefix = readString(data, pos, strings);
+            fn.localName = readString(data, pos, strings);
+        }
+
+        int numChildren = readInt(data, pos);
+        if (numChildren > 0) {
+            node.children = new Node[numChildren];
+            for (int i = 0; i < numChildren; i++) {
+                Node child = read(data, pos, strings);
+                child.jjtSetParent(node);
+                node.children[i] = child;
+            }
+        }
+        return node;
+    }
+
+    private static String readString(ByteBuffer data, int[] pos, String[] strings) {
+        int index = readInt(data, pos);
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static int readInt(ByteBuffer data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(pos[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static SimpleNode createNode(int id) throws ELException {
+        switch (id) {
+            case JJTCOMPOSITEEXPRESSION: return new AstCompositeExpression(id);
+            case JJTLITERALEXPRESSION: return new AstLiteralExpression(id);
+            case JJTDEFERREDEXPRESSION: return new AstDeferredExpression(id);
+            case JJTDYNAMICEXPRESSION: return new AstDynamicExpression(id);
+            case JJTCHOICE: return new AstChoice(id);
+            case JJTOR: return new AstOr(id);
+            case JJTAND: return new AstAnd(id);
+            case JJTEQUAL: return new AstEqual(id);
+            case JJTNOTEQUAL: return new AstNotEqual(id);
+            case JJTLESSTHAN: return new AstLessThan(id);
+            case JJTGREATERTHAN: return new AstGreaterThan(id);
+            case JJTLESSTHANEQUAL: return new AstLessThanEqual(id);
+            case JJTGREATERTHANEQUAL: return new AstGreaterThanEqual(id);
+            case JJTPLUS: return new AstPlus(id);
+            case JJTMINUS: return new AstMinus(id);
+            case JJTMULT: return new AstMult(id);
+            case JJTDIV: return new AstDiv(id);
+            case JJTMOD: return new AstMod(id);
+            case JJTNEGATIVE: return new AstNegative(id);
+            case JJTNOT: return new AstNot(id);
+            case JJTEMPTY: return new AstEmpty(id);
+            case JJTVALUE: return new AstValue(id);
+            case JJTDOTSUFFIX: return new AstDotSuffix(id);
+            case JJTBRACKETSUFFIX: return new AstBracketSuffix(id);
+            case JJTIDENTIFIER: return new AstIdentifier(id);
+            case JJTFUNCTION: return new AstFunction(id);
+            case JJTTRUE: return new AstTrue(id);
+            case JJTFALSE: return new AstFalse(id);
+            case JJTFLOATINGPOINT: return new AstFloatingPoint(id);
+            case JJTINTEGER: return new AstInteger(id);
+            case JJTSTRING: return new AstString(id);
+            case JJTNULL: return new AstNull(id);
+            default:
+                throw new ELException("Unknown node type " + id);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Collection;
+
+/**
+ * An {@code ObservableList} that can also be modified in bulk, notifying
+ * listeners of the result rather than of every step. These methods are
+ * kept off {@code ObservableList} itself so that existing implementations
+ * of that interface remain valid. The lists created by
+ * {@link ObservableCollections#observableList observableList} and its
+ * siblings implement this interface.
+ */
+public interface BulkObservableList<E> extends ObservableList<E> {
+    /**
+     * Replaces the contents of this list with the elements of the given
+     * collection, in the order returned by its iterator. Elements at the
+     * start and end of the list that are the same instances as those they
+     * would be replaced with are left in place, and the elements in between
+     * are removed and added with a single notification each, so that
+     * listeners only hear about the part of the list that differs. An
+     * element that is merely equal to the one it replaces is replaced, so
+     * that the list always holds the given instances.
+     *
+     * @param c the new contents of the list
+     * @throws NullPointerException if {@code c} is {@code null}
+     */
+    public void setAll(Collection<? extends E> c);
+
+    /**
+     * Begins a change. Until the matching call to {@link #endChange},
+     * modifications to the list are made as usual but listeners aren't
+     * notified of them; instead the modifications are recorded, and merged
+     * into the smallest set of contiguous changes that takes the list from
+     * its contents before the change to its contents after. When the change
+     * ends, listeners that implement {@link ObservableListChangeListener} are
+     * notified of the merged changes in a single call, and other listeners
+     * receive one notification (or a removal followed by an addition) per
+     * merged change. Changes may be nested, in which case only the outermost
+     * {@code endChange} notifies listeners.
+     * <p>
+     * Within a change, notification that a property of an element has changed
+     * is recorded as the element replacing itself.
+     */
+    public void beginChange();
+
+    /**
+     * Ends a change begun with {@link #beginChange}, notifying listeners of the
+     * merged changes if this ends the outermost change.
+     *
+     * @throws IllegalStateException if no change has begun
+     */
+    public void endChange();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+/**
+ * An {@code ObservableMap} whose modifications can be grouped into a single
+ * change, notifying listeners of the result rather than of every step.
+ * These methods are kept off {@code ObservableMap} itself so that existing
+ * implementations of that interface remain valid. The maps created by
+ * {@link ObservableCollections#observableMap observableMap} implement this
+ * interface.
+ */
+public interface BulkObservableMap<K,V> extends ObservableMap<K,V> {
+    /**
+     * Begins a change. Until the matching call to {@link #endChange},
+     * modifications to the map are made as usual but listeners aren't
+     * notified of them; instead the state of each key is remembered the
+     * first time it changes. When the change ends, listeners that implement
+     * {@link ObservableMapChangeListener} are notified of the keys whose
+     * state differs in a single call, and other listeners receive one
+     * notification per such key. Changes may be nested, in which case only
+     * the outermost {@code endChange} notifies listeners.
+     * <p>
+     * {@code putAll} and {@code clear} each make their modifications within
+     * a change of their own.
+     */
+    public void beginChange();
+
+    /**
+     * Ends a change begun with {@link #beginChange}, notifying listeners of the
+     * changed keys if this ends the outermost change.
+     *
+     * @throws IllegalStateException if no change has begun
+     */
+    public void endChange();
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * The list returned by {@code ObservableCollections.concurrentList}.
+ * Mutations are applied under a lock to the latest contents, and recorded
+ * in a {@code ListChangeRecorder}. A single delivery task at a time takes
+ * the merged changes and the elements they added, applies them to the
+ * delivered contents and notifies listeners, so the delivered contents and
+ * the notifications always agree. The delivered contents are confined to
+ * the delivery {@code Executor}.
+ */
+final class ConcurrentList<E> extends AbstractList<E> implements BulkObservableList<E> {
+    private final Executor executor;
+    private final Object lock = new Object();
+    private final List<E> current;
+    private final ListChangeRecorder recorder;
+    private int changeDepth;
+    private boolean deliveryRequested;
+    private final List<E> delivered;
+    private final List<ObservableListListener> listeners;
+    private final Runnable deliverer;
+
+    ConcurrentList(Executor executor) {
+        this.executor = executor;
+        current = new ArrayList<E>();
+        recorder = new ListChangeRecorder();
+        delivered = new ArrayList<E>();
+        listeners = new CopyOnWriteArrayList<ObservableListListener>();
+        deliverer = new Runnable() {
+            public void run() {
+                deliver();
+            }
+        };
+    }
+
+    public E get(int index) {
+        return delivered.get(index);
+    }
+
+    public int size() {
+        return delivered.size();
+    }
+
+    public E set(int index, E element) {
+        E oldElement;
+        boolean request;
+
+        synchronized (lock) {
+            oldElement = current.set(index, element);
+            recorder.replaced(index, oldElement);
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return oldElement;
+    }
+
+    public void add(int index, E element) {
+        boolean request;
+
+        synchronized (lock) {
+            current.add(index, element);
+            recorder.added(index, 1);
+            request = changed();
+        }
+
+        requestDelivery(request);
+    }
+
+    public E remove(int index) {
+        E oldElement;
+        boolean request;
+
+        synchronized (lock) {
+            oldElement = current.remove(index);
+            recorder.removed(index, Collections.singletonList(oldElement));
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return oldElement;
+    }
+
+    public boolean add(E element) {
+        boolean request;
+
+        synchronized (lock) {
+            recorder.added(current.size(), 1);
+            current.add(element);
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return true;
+    }
+
+    public boolean remove(Object o) {
+        boolean request;
+
+        synchronized (lock) {
+            int index = current.indexOf(o);
+            if (index == -1) {
+                return false;
+            }
+
+            recorder.removed(index, Collections.singletonList(current.remove(index)));
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return true;
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        List<E> elements = new ArrayList<E>(c);
+        boolean request;
+
+        synchronized (lock) {
+            recorder.added(current.size(), elements.size());
+            current.addAll(elements);
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return !elements.isEmpty();
+    }
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        List<E> elements = new ArrayList<E>(c);
+        boolean request;
+
+        synchronized (lock) {
+            current.addAll(index, elements);
+            recorder.added(index, elements.size());
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return !elements.isEmpty();
+    }
+
+    public void clear() {
+        boolean request;
+
+        synchronized (lock) {
+            removeRangeLocked(0, current.size());
+            request = changed();
+        }
+
+        requestDelivery(request);
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        boolean request;
+
+        synchronized (lock) {
+            removeRangeLocked(fromIndex, toIndex);
+            request = changed();
+        }
+
+        requestDelivery(request);
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        return removeMatching(c, true);
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        return removeMatching(c, false);
+    }
+
+    // Removes each contiguous run of matching elements as one change,
+    // working from the end of the list.
+    private boolean removeMatching(Collection<?> c, boolean matching) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+
+        boolean modified = false;
+        boolean request;
+
+        synchronized (lock) {
+            int end = current.size();
+            for (int i = end - 1; i >= -1; i--) {
+                if (i == -1 || c.contains(current.get(i)) != matching) {
+                    if (i + 1 < end) {
+                        removeRangeLocked(i + 1, end);
+                        modified = true;
+                    }
+                    end = i;
+                }
+            }
+
+            request = changed();
+        }
+
+        requestDelivery(request);
+        return modified;
+    }
+
+    public void setAll(Collection<? extends E> c) {
+        List<E> elements = new ArrayList<E>(c);
+        boolean request;
+
+        synchronized (lock) {
+            int oldSize = current.size();
+            int newSize = elements.size();
+
+            // leave any common prefix and suffix of the same instances untouched
+            int prefix = 0;
+            int max = Math.min(oldSize, newSize);
+            while (prefix < max && current.get(prefix) == elements.get(prefix)) {
+                prefix++;
+            }
+
+            int suffix = 0;
+            max -= prefix;
+            while (suffix < max && current.get(oldSize - suffix - 1) == elements.get(newSize - suffix - 1)) {
+                suffix++;
+            }
+
+            removeRangeLocked(prefix, oldSize - suffix);
+            current.addAll(prefix, elements.subList(prefix, newSize - suffix));
+            recorder.added(prefix, newSize - suffix - prefix);
+            request = changed();
+        }
+
+        requestDelivery(request);
+    }
+
+    private void removeRangeLocked(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+
+        List<E> range = current.subList(fromIndex, toIndex);
+        List<E> removed = new ArrayList<E>(range);
+        range.clear();
+        recorder.removed(fromIndex, removed);
+    }
+
+    public void beginChange() {
+        synchronized (lock) {
+            changeDepth++;
+        }
+    }
+
+    public void endChange() {
+        boolean request;
+
+        synchronized (lock) {
+            if (changeDepth == 0) {
+                throw new IllegalStateException("No change in progress");
+            }
+
+            changeDepth--;
+            request = changed();
+        }
+
+        requestDelivery(request);
+    }
+
+    // Called with the lock held after recording a change; returns whether a
+    // delivery needs to be requested.
+    private boolean changed() {
+        if (changeDepth != 0 || deliveryRequested || recorder.isEmpty()) {
+            return false;
+        }
+
+        deliveryRequested = true;
+        return true;
+    }
+
+    private void requestDelivery(boolean request) {
+        if (request) {
+            executor.execute(deliverer);
+        }
+    }
+
+    private void deliver() {
+        List<ObservableListChange> changes;
+        List<List<E>> added;
+
+        synchronized (lock) {
+            if (changeDepth != 0) {
+                // endChange will request another delivery
+                deliveryRequested = false;
+                return;
+            }
+
+            changes = recorder.takeChanges();
+            added = new ArrayList<List<E>>(changes.size());
+
+            // the changes' indices are those of the current contents
+            for (ObservableListChange change : changes) {
+                int index = change.getIndex();
+                added.add(new ArrayList<E>(current.subList(index, index + change.getAddedCount())));
+            }
+        }
+
+        boolean request = false;
+
+        try {
+            for (int i = 0; i < changes.size(); i++) {
+                ObservableListChange change = changes.get(i);
+                int index = change.getIndex();
+                delivered.subList(index, index + change.getRemovedElements().size()).clear();
+                delivered.addAll(index, added.get(i));
+            }
+
+            modCount++;
+            ListChangeRecorder.deliver(this, changes, listeners);
+        } finally {
+            synchronized (lock) {
+                // changes made since are delivered by the next task, which
+                // keeps deliveries in order even on a multi-threaded executor
+                deliveryRequested = false;
+                request = changed();
+            }
+
+            requestDelivery(request);
+        }
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean supportsElementPropertyChanged() {
+        return false;
+    }
+}
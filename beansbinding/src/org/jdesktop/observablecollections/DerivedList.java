@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base class for the read-only views that {@code ObservableCollections}
+ * derives from another {@code ObservableList}. A view listens to its source
+ * list until it is disposed, translating each change to the source into the
+ * corresponding changes to the view. Changes the source delivers together
+ * are delivered together by the view.
+ */
+abstract class DerivedList<S,E> extends AbstractList<E> implements ObservableListView<E> {
+    final ObservableList<S> source;
+    private final List<ObservableListListener> listeners;
+    private int changeDepth;
+    private ListChangeRecorder recorder;
+    private SourceListener sourceListener;
+
+    DerivedList(ObservableList<S> source) {
+        this.source = source;
+        listeners = new CopyOnWriteArrayList<ObservableListListener>();
+    }
+
+    /**
+     * Starts listening to the source. Called by subclasses once they have
+     * built their initial state.
+     */
+    final void listen() {
+        sourceListener = new SourceListener();
+        source.addObservableListListener(sourceListener);
+    }
+
+    public void dispose() {
+        if (sourceListener != null) {
+            source.removeObservableListListener(sourceListener);
+            sourceListener = null;
+        }
+    }
+
+    /**
+     * Called when {@code length} elements have been added to the source at
+     * {@code index}.
+     */
+    abstract void sourceAdded(int index, int length);
+
+    /**
+     * Called when the given elements have been removed from the source at
+     * {@code index}.
+     */
+    abstract void sourceRemoved(int index, List<?> oldElements);
+
+    /**
+     * Called when the element of the source at {@code index} has been
+     * replaced.
+     */
+    abstract void sourceReplaced(int index, Object oldElement);
+
+    /**
+     * Called when properties of the element of the source at {@code index}
+     * have changed; {@code propertyNames} is {@code null} if any may have.
+     */
+    abstract void sourceChanged(int index, Set<String> propertyNames);
+
+    /**
+     * Called with the merged changes made to the source within a change, and
+     * within a change to this view. Each change's index accounts for those
+     * before it, so by default the changes are applied one at a time.
+     */
+    void sourceChanged(List<ObservableListChange> changes) {
+        for (ObservableListChange change : changes) {
+            List<?> removed = change.getRemovedElements();
+            int index = change.getIndex();
+
+            if (change.isReplacement()) {
+                for (int i = 0; i < removed.size(); i++) {
+                    sourceReplaced(index + i, removed.get(i));
+                }
+            } else {
+                if (!removed.isEmpty()) {
+                    sourceRemoved(index, removed);
+                }
+                sourceAdded(index, change.getAddedCount());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    final S sourceElement(int index) {
+        return source.get(index);
+    }
+
+    // the views can't be modified, so changes are only used to merge the
+    // notifications for a change to the source
+    final void beginChange() {
+        if (changeDepth++ == 0 && recorder == null) {
+            recorder = new ListChangeRecorder();
+        }
+    }
+
+    final void endChange() {
+        if (changeDepth == 0) {
+            throw new IllegalStateException("No change in progress");
+        }
+
+        if (--changeDepth == 0 && !recorder.isEmpty()) {
+            ListChangeRecorder.deliver(this, recorder.takeChanges(), listeners);
+        }
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean supportsElementPropertyChanged() {
+        return source.supportsElementPropertyChanged();
+    }
+
+    final void fireElementsAdded(int index, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        modCount++;
+
+        if (changeDepth != 0) {
+            recorder.added(index, length);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementsAdded(this, index, length);
+        }
+    }
+
+    final void fireElementsRemoved(int index, List<?> oldElements) {
+        if (oldElements.isEmpty()) {
+            return;
+        }
+
+        modCount++;
+
+        if (changeDepth != 0) {
+            recorder.removed(index, oldElements);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementsRemoved(this, index, oldElements);
+        }
+    }
+
+    final void fireElementReplaced(int index, Object oldElement) {
+        if (changeDepth != 0) {
+            recorder.replaced(index, oldElement);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementReplaced(this, index, oldElement);
+        }
+    }
+
+    final void fireElementChanged(int index, Set<String> propertyNames) {
+        if (changeDepth != 0) {
+            // reported as the element replacing itself
+            recorder.replaced(index, get(index));
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListPropertyListener) {
+                ((ObservableListPropertyListener)listener).listElementsPropertyChanged(
+                        this, index, 1, propertyNames);
+            } else {
+                listener.listElementPropertyChanged(this, index);
+            }
+        }
+    }
+
+    private final class SourceListener implements ObservableListChangeListener,
+                                                  ObservableListPropertyListener {
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            sourceAdded(index, length);
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            sourceRemoved(index, oldElements);
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            sourceReplaced(index, oldElement);
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            sourceChanged(index, null);
+        }
+
+        public void listElementsPropertyChanged(ObservableList list, int index, int length,
+                                                Set<String> propertyNames) {
+            for (int i = index; i < index + length; i++) {
+                sourceChanged(i, propertyNames);
+            }
+        }
+
+        public void listChanged(ObservableList list, List<ObservableListChange> changes) {
+            beginChange();
+            try {
+                sourceChanged(changes);
+            } finally {
+                endChange();
+            }
+        }
+    }
+}
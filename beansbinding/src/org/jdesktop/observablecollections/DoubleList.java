@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@code ObservableDoubleList} backed by a {@code double[]}.
+ */
+final class DoubleList extends PrimitiveList<Double> implements ObservableDoubleList {
+    private double[] elements;
+
+    DoubleList(double[] elements, int size) {
+        super(size);
+        this.elements = elements;
+    }
+
+    Object array() {
+        return elements;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    void grow(int capacity) {
+        double[] grown = new double[capacity];
+        System.arraycopy(elements, 0, grown, 0, size);
+        elements = grown;
+    }
+
+    List<Double> copy(int fromIndex, int toIndex) {
+        double[] copy = new double[toIndex - fromIndex];
+        System.arraycopy(elements, fromIndex, copy, 0, copy.length);
+        return Collections.unmodifiableList(new DoubleList(copy, copy.length));
+    }
+
+    public Double get(int index) {
+        return Double.valueOf(getDouble(index));
+    }
+
+    public double getDouble(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public Double set(int index, Double element) {
+        return Double.valueOf(setDouble(index, element.doubleValue()));
+    }
+
+    public double setDouble(int index, double value) {
+        checkIndex(index);
+        double oldValue = elements[index];
+        elements[index] = value;
+        fireElementReplaced(index, Double.valueOf(oldValue));
+        return oldValue;
+    }
+
+    public void add(int index, Double element) {
+        addDouble(index, element.doubleValue());
+    }
+
+    public void addDouble(double value) {
+        addDouble(size, value);
+    }
+
+    public void addDouble(int index, double value) {
+        open(index, 1);
+        elements[index] = value;
+        fireElementsAdded(index, 1);
+    }
+
+    public boolean addAll(Collection<? extends Double> c) {
+        return addAll(size, c);
+    }
+
+    public boolean addAll(int index, Collection<? extends Double> c) {
+        double[] values = toArray(c);
+        addAll(index, values);
+        return values.length != 0;
+    }
+
+    public void addAll(double[] values) {
+        addAll(size, values);
+    }
+
+    public void addAll(int index, double[] values) {
+        open(index, values.length);
+        System.arraycopy(values, 0, elements, index, values.length);
+        fireElementsAdded(index, values.length);
+    }
+
+    public void setAll(Collection<? extends Double> c) {
+        setAll(toArray(c));
+    }
+
+    public void setAll(double[] values) {
+        // leave any common prefix and suffix untouched
+        int prefix = 0;
+        int max = Math.min(size, values.length);
+        while (prefix < max && same(elements[prefix], values[prefix])) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        max -= prefix;
+        while (suffix < max && same(elements[size - suffix - 1], values[values.length - suffix - 1])) {
+            suffix++;
+        }
+
+        int removed = size - prefix - suffix;
+        int added = values.length - prefix - suffix;
+
+        if (removed == 1 && added == 1) {
+            setDouble(prefix, values[prefix]);
+            return;
+        }
+
+        if (replaceRange(prefix, removed, added)) {
+            System.arraycopy(values, prefix, elements, prefix, added);
+            fireElementsAdded(prefix, added);
+        }
+    }
+
+    public double[] toDoubleArray() {
+        double[] values = new double[size];
+        System.arraycopy(elements, 0, values, 0, size);
+        return values;
+    }
+
+    // compares as Double.equals does, so that NaN matches itself
+    private static boolean same(double d1, double d2) {
+        return Double.doubleToLongBits(d1) == Double.doubleToLongBits(d2);
+    }
+
+    private static double[] toArray(Collection<? extends Double> c) {
+        double[] values = new double[c.size()];
+        int i = 0;
+        for (Double value : c) {
+            values[i++] = value.doubleValue();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+/**
+ * Decides which elements of a list appear in a
+ * {@link ObservableCollections#filtered filtered} view of it.
+ *
+ * @param <E> the type of element
+ * @see ObservableCollections#filtered
+ */
+public interface ElementFilter<E> {
+    /**
+     * Returns whether the given element belongs in the view.
+     *
+     * @param element the element
+     * @return whether the element belongs in the view
+     */
+    public boolean accept(E element);
+}
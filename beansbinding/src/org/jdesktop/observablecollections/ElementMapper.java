@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+/**
+ * Computes the elements of a {@link ObservableCollections#mapped mapped} view
+ * of a list from the elements of the list.
+ *
+ * @param <S> the type of element in the list
+ * @param <T> the type of element in the view
+ * @see ObservableCollections#mapped
+ */
+public interface ElementMapper<S,T> {
+    /**
+     * Returns the view's element for the given element of the list.
+     *
+     * @param element the element of the list
+     * @return the element of the view
+     */
+    public T map(S element);
+}
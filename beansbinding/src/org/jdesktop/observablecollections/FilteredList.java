@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The view returned by {@code ObservableCollections.filtered}. The view keeps
+ * a node for each element of the source in an {@code IndexTree}, in source
+ * order, marking the nodes of the accepted elements, so that translating
+ * between view positions and source indices, and adding or removing source
+ * elements, take logarithmic time.
+ */
+final class FilteredList<E> extends DerivedList<E,E> {
+    private final ElementFilter<? super E> filter;
+    private final IndexTree nodes = new IndexTree();
+
+    FilteredList(ObservableList<E> source, ElementFilter<? super E> filter) {
+        super(source);
+        this.filter = filter;
+
+        int sourceSize = source.size();
+        for (int i = 0; i < sourceSize; i++) {
+            E element = sourceElement(i);
+            nodes.insert(i, filter.accept(element)).value = element;
+        }
+
+        listen();
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return (E)nodes.getMarked(index).value;
+    }
+
+    public int size() {
+        return nodes.markedSize();
+    }
+
+    void sourceAdded(int index, int length) {
+        int position = nodes.markedBefore(index);
+        int count = 0;
+
+        for (int i = index; i < index + length; i++) {
+            E element = sourceElement(i);
+            boolean accepted = filter.accept(element);
+            nodes.insert(i, accepted).value = element;
+            if (accepted) {
+                count++;
+            }
+        }
+
+        fireElementsAdded(position, count);
+    }
+
+    void sourceRemoved(int index, List<?> oldElements) {
+        int position = nodes.markedBefore(index);
+        List<Object> removed = null;
+
+        for (int i = 0; i < oldElements.size(); i++) {
+            IndexTree.Node node = nodes.get(index);
+            if (node.isMarked()) {
+                if (removed == null) {
+                    removed = new ArrayList<Object>();
+                }
+                removed.add(oldElements.get(i));
+            }
+            nodes.remove(node);
+        }
+
+        if (removed != null) {
+            fireElementsRemoved(position, removed);
+        }
+    }
+
+    void sourceReplaced(int index, Object oldElement) {
+        update(index, oldElement, false, null);
+    }
+
+    void sourceChanged(int index, Set<String> propertyNames) {
+        update(index, sourceElement(index), true, propertyNames);
+    }
+
+    // Re-applies the filter to a single source element.
+    private void update(int index, Object oldElement, boolean changed, Set<String> propertyNames) {
+        IndexTree.Node node = nodes.get(index);
+        E element = sourceElement(index);
+        boolean was = node.isMarked();
+        boolean is = filter.accept(element);
+        int position = nodes.markedBefore(node);
+        node.value = element;
+
+        if (was && is) {
+            if (changed) {
+                fireElementChanged(position, propertyNames);
+            } else {
+                fireElementReplaced(position, oldElement);
+            }
+        } else if (was) {
+            nodes.setMarked(node, false);
+            fireElementsRemoved(position, Collections.singletonList(oldElement));
+        } else if (is) {
+            nodes.setMarked(node, true);
+            fireElementsAdded(position, 1);
+        }
+    }
+}
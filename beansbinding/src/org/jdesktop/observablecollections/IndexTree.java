@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Random;
+
+/**
+ * A sequence of nodes held in a balanced tree (a treap), for the views that
+ * map between their own indices and those of their source list. Each node
+ * knows the size of its subtree, so that nodes can be found by index, and
+ * the index of a node found, in logarithmic time, and inserting or removing
+ * a node shifts the indices of the nodes after it without visiting them.
+ * Nodes may also be marked, and found by their index among the marked nodes.
+ */
+final class IndexTree {
+    private final Random priorities = new Random();
+    private Node root;
+
+    /**
+     * A node of an {@code IndexTree}, with a value and a link to a node of
+     * another tree for the views to use as they see fit.
+     */
+    static final class Node {
+        private final int priority;
+        private Node left;
+        private Node right;
+        private Node parent;
+        private int size = 1;
+        private int marked;
+        private boolean mark;
+
+        Object value;
+        Node link;
+
+        private Node(int priority, boolean mark) {
+            this.priority = priority;
+            this.mark = mark;
+            marked = mark ? 1 : 0;
+        }
+
+        Node left() {
+            return left;
+        }
+
+        Node right() {
+            return right;
+        }
+
+        boolean isMarked() {
+            return mark;
+        }
+    }
+
+    static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int marked(Node node) {
+        return node == null ? 0 : node.marked;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    int markedSize() {
+        return marked(root);
+    }
+
+    /**
+     * Returns the node at the given index.
+     */
+    Node get(int index) {
+        checkIndex(index, size());
+        Node node = root;
+
+        while (true) {
+            int left = size(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return node;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the marked node at the given index among the marked nodes.
+     */
+    Node getMarked(int index) {
+        checkIndex(index, markedSize());
+        Node node = root;
+
+        while (true) {
+            int left = marked(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left && node.mark) {
+                return node;
+            } else {
+                index -= left + (node.mark ? 1 : 0);
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the given node.
+     */
+    int indexOf(Node node) {
+        int index = size(node.left);
+
+        for (Node child = node, parent = node.parent; parent != null; child = parent, parent = parent.parent) {
+            if (child == parent.right) {
+                index += size(parent.left) + 1;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the number of marked nodes before the given node.
+     */
+    int markedBefore(Node node) {
+        int count = marked(node.left);
+
+        for (Node child = node, parent = node.parent; parent != null; child = parent, parent = parent.parent) {
+            if (child == parent.right) {
+                count += marked(parent.left) + (parent.mark ? 1 : 0);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of marked nodes before the given index.
+     */
+    int markedBefore(int index) {
+        int count = 0;
+        Node node = root;
+
+        while (node != null) {
+            int left = size(node.left);
+            if (index <= left) {
+                node = node.left;
+            } else {
+                count += marked(node.left) + (node.mark ? 1 : 0);
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Inserts a new node at the given index, and returns it.
+     */
+    Node insert(int index, boolean mark) {
+        checkIndex(index, size() + 1);
+        Node node = new Node(priorities.nextInt(), mark);
+
+        if (root == null) {
+            root = node;
+            return node;
+        }
+
+        Node parent = root;
+        while (true) {
+            parent.size++;
+            if (mark) {
+                parent.marked++;
+            }
+
+            int left = size(parent.left);
+            if (index <= left) {
+                if (parent.left == null) {
+                    parent.left = node;
+                    break;
+                }
+                parent = parent.left;
+            } else {
+                index -= left + 1;
+                if (parent.right == null) {
+                    parent.right = node;
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+
+        node.parent = parent;
+
+        while (node.parent != null && node.priority > node.parent.priority) {
+            rotateUp(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Removes the given node.
+     */
+    void remove(Node node) {
+        // rotate the node down to a leaf, keeping the heap order of the rest
+        while (node.left != null || node.right != null) {
+            Node child = (node.right == null || (node.left != null && node.left.priority > node.right.priority))
+                    ? node.left : node.right;
+            rotateUp(child);
+        }
+
+        Node parent = node.parent;
+        if (parent == null) {
+            root = null;
+            return;
+        }
+
+        if (parent.left == node) {
+            parent.left = null;
+        } else {
+            parent.right = null;
+        }
+        node.parent = null;
+
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size--;
+            if (node.mark) {
+                ancestor.marked--;
+            }
+        }
+    }
+
+    /**
+     * Marks or unmarks the given node.
+     */
+    void setMarked(Node node, boolean mark) {
+        if (node.mark == mark) {
+            return;
+        }
+
+        node.mark = mark;
+        int delta = mark ? 1 : -1;
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.marked += delta;
+        }
+    }
+
+    // Rotates the node above its parent.
+    private void rotateUp(Node node) {
+        Node parent = node.parent;
+        Node grandparent = parent.parent;
+
+        if (node == parent.left) {
+            parent.left = node.right;
+            if (node.right != null) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if (node.left != null) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+
+        parent.parent = node;
+        node.parent = grandparent;
+
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.left == parent) {
+            grandparent.left = node;
+        } else {
+            grandparent.right = node;
+        }
+
+        update(parent);
+        update(node);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        node.marked = (node.mark ? 1 : 0) + marked(node.left) + marked(node.right);
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@code ObservableIntList} backed by an {@code int[]}.
+ */
+final class IntList extends PrimitiveList<Integer> implements ObservableIntList {
+    private int[] elements;
+
+    IntList(int[] elements, int size) {
+        super(size);
+        this.elements = elements;
+    }
+
+    Object array() {
+        return elements;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    void grow(int capacity) {
+        int[] grown = new int[capacity];
+        System.arraycopy(elements, 0, grown, 0, size);
+        elements = grown;
+    }
+
+    List<Integer> copy(int fromIndex, int toIndex) {
+        int[] copy = new int[toIndex - fromIndex];
+        System.arraycopy(elements, fromIndex, copy, 0, copy.length);
+        return Collections.unmodifiableList(new IntList(copy, copy.length));
+    }
+
+    public Integer get(int index) {
+        return Integer.valueOf(getInt(index));
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public Integer set(int index, Integer element) {
+        return Integer.valueOf(setInt(index, element.intValue()));
+    }
+
+    public int setInt(int index, int value) {
+        checkIndex(index);
+        int oldValue = elements[index];
+        elements[index] = value;
+        fireElementReplaced(index, Integer.valueOf(oldValue));
+        return oldValue;
+    }
+
+    public void add(int index, Integer element) {
+        addInt(index, element.intValue());
+    }
+
+    public void addInt(int value) {
+        addInt(size, value);
+    }
+
+    public void addInt(int index, int value) {
+        open(index, 1);
+        elements[index] = value;
+        fireElementsAdded(index, 1);
+    }
+
+    public boolean addAll(Collection<? extends Integer> c) {
+        return addAll(size, c);
+    }
+
+    public boolean addAll(int index, Collection<? extends Integer> c) {
+        int[] values = toArray(c);
+        addAll(index, values);
+        return values.length != 0;
+    }
+
+    public void addAll(int[] values) {
+        addAll(size, values);
+    }
+
+    public void addAll(int index, int[] values) {
+        open(index, values.length);
+        System.arraycopy(values, 0, elements, index, values.length);
+        fireElementsAdded(index, values.length);
+    }
+
+    public void setAll(Collection<? extends Integer> c) {
+        setAll(toArray(c));
+    }
+
+    public void setAll(int[] values) {
+        // leave any common prefix and suffix untouched
+        int prefix = 0;
+        int max = Math.min(size, values.length);
+        while (prefix < max && elements[prefix] == values[prefix]) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        max -= prefix;
+        while (suffix < max && elements[size - suffix - 1] == values[values.length - suffix - 1]) {
+            suffix++;
+        }
+
+        int removed = size - prefix - suffix;
+        int added = values.length - prefix - suffix;
+
+        if (removed == 1 && added == 1) {
+            setInt(prefix, values[prefix]);
+            return;
+        }
+
+        if (replaceRange(prefix, removed, added)) {
+            System.arraycopy(values, prefix, elements, prefix, added);
+            fireElementsAdded(prefix, added);
+        }
+    }
+
+    public int[] toIntArray() {
+        int[] values = new int[size];
+        System.arraycopy(elements, 0, values, 0, size);
+        return values;
+    }
+
+    private static int[] toArray(Collection<? extends Integer> c) {
+        int[] values = new int[c.size()];
+        int i = 0;
+        for (Integer value : c) {
+            values[i++] = value.intValue();
+        }
+        return values;
+    }
+}
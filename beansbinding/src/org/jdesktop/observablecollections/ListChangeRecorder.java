@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the changes made to an {@code ObservableList} within a change,
+ * merging them as they arrive into a list of disjoint, non-adjacent changes
+ * in order of index. Each recorded change covers a range of the list as it
+ * currently stands, holding the elements originally removed at that point
+ * and the number of elements now in their place.
+ */
+final class ListChangeRecorder {
+    private final List<Change> changes = new ArrayList<Change>();
+
+    void added(int index, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        int i = find(index);
+
+        if (i < changes.size() && changes.get(i).index <= index) {
+            changes.get(i).added += length;
+        } else {
+            changes.add(i, new Change(index, new ArrayList<Object>(0), length));
+        }
+
+        shift(i + 1, length);
+    }
+
+    void removed(int index, List<?> oldElements) {
+        int length = oldElements.size();
+        if (length == 0) {
+            return;
+        }
+
+        int end = index + length;
+        int first = find(index);
+        int i = first;
+        int cursor = index;
+        int start = index;
+        int kept = 0;
+        List<Object> removed = new ArrayList<Object>(length);
+
+        for (; i < changes.size(); i++) {
+            Change change = changes.get(i);
+            if (change.index > end) {
+                break;
+            }
+
+            int changeEnd = change.index + change.added;
+
+            if (change.index < index) {
+                // the part added before the removed range survives
+                start = change.index;
+                kept += index - change.index;
+            } else {
+                // original elements between the previous change and this one
+                removed.addAll(oldElements.subList(cursor - index, change.index - index));
+                cursor = change.index;
+            }
+
+            removed.addAll(change.removed);
+
+            // the added elements within the removed range simply vanish
+            if (changeEnd > end) {
+                kept += changeEnd - end;
+            }
+
+            cursor = Math.max(cursor, Math.min(changeEnd, end));
+        }
+
+        removed.addAll(oldElements.subList(cursor - index, length));
+
+        changes.subList(first, i).clear();
+        if (!removed.isEmpty() || kept != 0) {
+            changes.add(first, new Change(start, removed, kept));
+            first++;
+        }
+
+        shift(first, -length);
+    }
+
+    void replaced(int index, Object oldElement) {
+        int i = find(index);
+
+        if (i < changes.size()) {
+            Change change = changes.get(i);
+            if (change.index <= index && index < change.index + change.added) {
+                // replacing an element added within the change
+                return;
+            }
+        }
+
+        removed(index, Collections.singletonList(oldElement));
+        added(index, 1);
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    List<ObservableListChange> takeChanges() {
+        List<ObservableListChange> result = new ArrayList<ObservableListChange>(changes.size());
+
+        for (Change change : changes) {
+            result.add(new ObservableListChange(change.index,
+                                                Collections.unmodifiableList(change.removed),
+                                                change.added));
+        }
+
+        changes.clear();
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Delivers changes taken from a recorder to the given listeners: in one
+     * call to those that are {@code ObservableListChangeListeners}, and as
+     * the equivalent sequence of individual notifications to the others.
+     */
+    static void deliver(ObservableList list, List<ObservableListChange> changes,
+                        Iterable<ObservableListListener> listeners) {
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListChangeListener) {
+                ((ObservableListChangeListener)listener).listChanged(list, changes);
+                continue;
+            }
+
+            for (ObservableListChange change : changes) {
+                List<?> removed = change.getRemovedElements();
+                int added = change.getAddedCount();
+
+                if (removed.size() == 1 && added == 1) {
+                    listener.listElementReplaced(list, change.getIndex(), removed.get(0));
+                } else {
+                    if (!removed.isEmpty()) {
+                        listener.listElementsRemoved(list, change.getIndex(), removed);
+                    }
+
+                    if (added != 0) {
+                        listener.listElementsAdded(list, change.getIndex(), added);
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns the position of the first change that ends at or after the index.
+    private int find(int index) {
+        int low = 0;
+        int high = changes.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Change change = changes.get(mid);
+            if (change.index + change.added < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private void shift(int from, int delta) {
+        for (int i = from; i < changes.size(); i++) {
+            changes.get(i).index += delta;
+        }
+    }
+
+    private static final class Change {
+        private int index;
+        private final List<Object> removed;
+        private int added;
+
+        Change(int index, List<Object> removed, int added) {
+            this.index = index;
+            this.removed = removed;
+            this.added = added;
+        }
+    }
+}
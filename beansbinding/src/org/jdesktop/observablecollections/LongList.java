@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@code ObservableLongList} backed by a {@code long[]}.
+ */
+final class LongList extends PrimitiveList<Long> implements ObservableLongList {
+    private long[] elements;
+
+    LongList(long[] elements, int size) {
+        super(size);
+        this.elements = elements;
+    }
+
+    Object array() {
+        return elements;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    void grow(int capacity) {
+        long[] grown = new long[capacity];
+        System.arraycopy(elements, 0, grown, 0, size);
+        elements = grown;
+    }
+
+    List<Long> copy(int fromIndex, int toIndex) {
+        long[] copy = new long[toIndex - fromIndex];
+        System.arraycopy(elements, fromIndex, copy, 0, copy.length);
+        return Collections.unmodifiableList(new LongList(copy, copy.length));
+    }
+
+    public Long get(int index) {
+        return Long.valueOf(getLong(index));
+    }
+
+    public long getLong(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public Long set(int index, Long element) {
+        return Long.valueOf(setLong(index, element.longValue()));
+    }
+
+    public long setLong(int index, long value) {
+        checkIndex(index);
+        long oldValue = elements[index];
+        elements[index] = value;
+        fireElementReplaced(index, Long.valueOf(oldValue));
+        return oldValue;
+    }
+
+    public void add(int index, Long element) {
+        addLong(index, element.longValue());
+    }
+
+    public void addLong(long value) {
+        addLong(size, value);
+    }
+
+    public void addLong(int index, long value) {
+        open(index, 1);
+        elements[index] = value;
+        fireElementsAdded(index, 1);
+    }
+
+    public boolean addAll(Collection<? extends Long> c) {
+        return addAll(size, c);
+    }
+
+    public boolean addAll(int index, Collection<? extends Long> c) {
+        long[] values = toArray(c);
+        addAll(index, values);
+        return values.length != 0;
+    }
+
+    public void addAll(long[] values) {
+        addAll(size, values);
+    }
+
+    public void addAll(int index, long[] values) {
+        open(index, values.length);
+        System.arraycopy(values, 0, elements, index, values.length);
+        fireElementsAdded(index, values.length);
+    }
+
+    public void setAll(Collection<? extends Long> c) {
+        setAll(toArray(c));
+    }
+
+    public void setAll(long[] values) {
+        // leave any common prefix and suffix untouched
+        int prefix = 0;
+        int max = Math.min(size, values.length);
+        while (prefix < max && elements[prefix] == values[prefix]) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        max -= prefix;
+        while (suffix < max && elements[size - suffix - 1] == values[values.length - suffix - 1]) {
+            suffix++;
+        }
+
+        int removed = size - prefix - suffix;
+        int added = values.length - prefix - suffix;
+
+        if (removed == 1 && added == 1) {
+            setLong(prefix, values[prefix]);
+            return;
+        }
+
+        if (replaceRange(prefix, removed, added)) {
+            System.arraycopy(values, prefix, elements, prefix, added);
+            fireElementsAdded(prefix, added);
+        }
+    }
+
+    public long[] toLongArray() {
+        long[] values = new long[size];
+        System.arraycopy(elements, 0, values, 0, size);
+        return values;
+    }
+
+    private static long[] toArray(Collection<? extends Long> c) {
+        long[] values = new long[c.size()];
+        int i = 0;
+        for (Long value : c) {
+            values[i++] = value.longValue();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The view returned by {@code ObservableCollections.mapped}. The view keeps
+ * the mapped elements, mapping each source element once when it is added or
+ * replaced, or when one of its properties changes, so that the removed and
+ * replaced elements it reports are exactly those it held. Each change to the
+ * source is reported at the same index.
+ */
+final class MappedList<S,E> extends DerivedList<S,E> {
+    private final ElementMapper<? super S, ? extends E> mapper;
+    private final List<E> elements;
+
+    MappedList(ObservableList<S> source, ElementMapper<? super S, ? extends E> mapper) {
+        super(source);
+        this.mapper = mapper;
+
+        int size = source.size();
+        elements = new ArrayList<E>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(mapper.map(sourceElement(i)));
+        }
+
+        listen();
+    }
+
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    void sourceAdded(int index, int length) {
+        List<E> added = new ArrayList<E>(length);
+        for (int i = index; i < index + length; i++) {
+            added.add(mapper.map(sourceElement(i)));
+        }
+
+        elements.addAll(index, added);
+        fireElementsAdded(index, length);
+    }
+
+    void sourceRemoved(int index, List<?> oldElements) {
+        List<E> range = elements.subList(index, index + oldElements.size());
+        List<E> removed = new ArrayList<E>(range);
+        range.clear();
+        fireElementsRemoved(index, removed);
+    }
+
+    void sourceReplaced(int index, Object oldElement) {
+        E old = elements.set(index, mapper.map(sourceElement(index)));
+        fireElementReplaced(index, old);
+    }
+
+    void sourceChanged(int index, Set<String> propertyNames) {
+        E element = mapper.map(sourceElement(index));
+        E old = elements.set(index, element);
+
+        if (old == element) {
+            // the names are those of the source element's properties, which
+            // needn't be the mapped element's
+            fireElementChanged(index, null);
+        } else {
+            // the property mapped to a different element
+            fireElementReplaced(index, old);
+        }
+    }
+}
@@ -5,16 +5,29 @@
 
 package org.jdesktop.observablecollections;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * {@code ObservableCollections} provides factory methods for creating
@@ -26,7 +39,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public final class ObservableCollections {
     /**
      * Creates and returns an {@code ObservableMap} wrapping the supplied
-     * {@code Map}.
+     * {@code Map}. The returned map is a {@link BulkObservableMap}.
      *
      * @param map the {@code Map} to wrap
      * @return an {@code ObservableMap}
@@ -41,7 +54,7 @@ public final class ObservableCollections {
 
     /**
      * Creates and returns an {@code ObservableList} wrapping the supplied
-     * {@code List}.
+     * {@code List}. The returned list is a {@link BulkObservableList}.
      *
      * @param list the {@code List} to wrap
      * @return an {@code ObservableList}
@@ -54,6 +67,39 @@ public final class ObservableCollections {
         return new ObservableListImpl<E>(list, false);
     }
 
+    /**
+     * Creates and returns an {@code ObservableList} wrapping the supplied
+     * {@code List} of JavaBeans, which notifies its listeners when a bound
+     * property of one of its elements changes. A single
+     * {@code PropertyChangeListener} is added to each element that has a
+     * public {@code addPropertyChangeListener(PropertyChangeListener)}
+     * method, however many times it appears in the list, and removed when the
+     * element leaves the list. When an element fires a
+     * {@code PropertyChangeEvent}, the list finds its index through an
+     * identity map and calls {@code listElementPropertyChanged} for it,
+     * passing the name of the property to
+     * {@link ObservableListPropertyListener ObservableListPropertyListeners}.
+     * <p>
+     * Since the list watches its elements itself, a bound {@code JTable}
+     * doesn't need to listen to each element for each of its columns. The
+     * wrapped list must only be modified through the returned list, and an
+     * element keeps a reference to the list for as long as it remains in it.
+     *
+     * @param list the {@code List} to wrap
+     * @return an {@code ObservableList}
+     * @throws IllegalArgumentException if {@code list} is {@code null}
+     *
+     * @see ObservableListPropertyListener
+     */
+    public static <E> BulkObservableList<E> observableBeanList(List<E> list) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+        ObservableListImpl<E> oList = new ObservableListImpl<E>(list, true);
+        oList.observeElements();
+        return oList;
+    }
+
     /**
      * Creates and returns an {@code ObservableListHelper} wrapping
      * the supplied {@code List}. If you can track changes to the underlying
@@ -69,7 +115,230 @@ public final class ObservableCollections {
         ObservableListImpl<E> oList = new ObservableListImpl<E>(list, true);
         return new ObservableListHelper<E>(oList);
     }
-    
+
+    /**
+     * Creates and returns a read-only view of the elements of an
+     * {@code ObservableList} that are accepted by a filter, in the order they
+     * appear in the list. The view is updated as the list changes, notifying
+     * its own listeners only of the changes to the accepted elements. If the
+     * list {@link ObservableList#supportsElementPropertyChanged supports}
+     * element property change notification, an element is filtered again
+     * whenever one of its properties changes, and added to or removed from
+     * the view as necessary.
+     * <p>
+     * The view translates its indices into those of the list through a
+     * balanced tree, so that each change to the list is located and applied
+     * in the view in logarithmic time. The view listens to the list until it
+     * is {@link ObservableListView#dispose disposed}.
+     *
+     * @param list the {@code ObservableList} to filter
+     * @param filter decides which elements appear in the view
+     * @return the filtered view
+     * @throws IllegalArgumentException if {@code list} or {@code filter} is
+     *         {@code null}
+     */
+    public static <E> ObservableListView<E> filtered(ObservableList<E> list, ElementFilter<? super E> filter) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter must be non-null");
+        }
+        return new FilteredList<E>(list, filter);
+    }
+
+    /**
+     * Creates and returns a read-only view of the elements of an
+     * {@code ObservableList}, sorted with a {@code Comparator}. Elements that
+     * compare as equal appear in the order they appear in the list. The view
+     * is updated as the list changes: added and replaced elements are placed
+     * by binary insertion, and an element that no longer sorts where it is is
+     * reported as removed from its old position and added at its new one. If
+     * the list {@link ObservableList#supportsElementPropertyChanged supports}
+     * element property change notification, an element is placed again
+     * whenever one of its properties changes.
+     * <p>
+     * The view keeps its elements in a balanced tree, so that each change to
+     * the list is applied in logarithmic time, aside from comparisons. The
+     * view listens to the list until it is
+     * {@link ObservableListView#dispose disposed}.
+     *
+     * @param list the {@code ObservableList} to sort
+     * @param comparator the order of the view
+     * @return the sorted view
+     * @throws IllegalArgumentException if {@code list} or {@code comparator}
+     *         is {@code null}
+     */
+    public static <E> ObservableListView<E> sorted(ObservableList<E> list, Comparator<? super E> comparator) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator must be non-null");
+        }
+        return new SortedList<E>(list, comparator);
+    }
+
+    /**
+     * Creates and returns a read-only view that maps each element of an
+     * {@code ObservableList} with an {@code ElementMapper}. Each element is
+     * mapped when it is added to or replaced in the list, or when one of its
+     * properties changes, and the view keeps the result. Every change to the
+     * list is reported by the view at the same index; a change to a property
+     * of an element that maps it to a different element is reported as a
+     * replacement.
+     * <p>
+     * The view listens to the list until it is
+     * {@link ObservableListView#dispose disposed}.
+     *
+     * @param list the {@code ObservableList} to map
+     * @param mapper computes the elements of the view
+     * @return the mapped view
+     * @throws IllegalArgumentException if {@code list} or {@code mapper} is
+     *         {@code null}
+     */
+    public static <S,T> ObservableListView<T> mapped(ObservableList<S> list, ElementMapper<? super S, ? extends T> mapper) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+        if (mapper == null) {
+            throw new IllegalArgumentException("Mapper must be non-null");
+        }
+        return new MappedList<S,T>(list, mapper);
+    }
+
+    /**
+     * Creates and returns a read-only {@code ObservableList} whose elements
+     * are loaded a page at a time by a {@code PageLoader}, so that only the
+     * pages in use need be held in memory. The size of the list is fixed when
+     * it is created.
+     * <p>
+     * Reading an element whose page isn't resident returns {@code null}, and
+     * asks for the page to be loaded on the loading {@code Executor}; the pages
+     * either side of it are asked for as well. Once a page has loaded, it is
+     * installed by way of the installing {@code Executor}, and listeners are
+     * notified that each of its elements has replaced a {@code null};
+     * listeners that implement {@code ObservableListChangeListener} receive a
+     * single change covering the page. At most {@code residentPages} pages are kept, the
+     * least recently read being discarded first.
+     * <p>
+     * The list, other than its loader, must only be used on the thread that
+     * the installing {@code Executor} runs tasks on. For a list bound to a
+     * Swing component, that is the event dispatch thread, as with the
+     * {@code Executor} from {@code SwingBindings.getEventQueueExecutor}.
+     * Since only the rows that are read are loaded, a {@code JTable} bound to
+     * the list loads only the pages it displays.
+     * Operations that read every element, such as {@code indexOf} or
+     * iteration, return {@code null} for the pages that aren't resident.
+     *
+     * @param loader loads the elements
+     * @param pageSize the number of elements in a page
+     * @param residentPages the maximum number of pages to keep
+     * @param loadExecutor the {@code Executor} to load pages on
+     * @param installExecutor the {@code Executor} to install loaded pages on
+     * @return the paged list
+     * @throws IllegalArgumentException if {@code loader}, {@code loadExecutor}
+     *         or {@code installExecutor} is {@code null}, {@code pageSize} is
+     *         not positive, or
+     *         {@code residentPages} is less than {@code 3}
+     */
+    public static <E> ObservableList<E> pagedList(PageLoader<? extends E> loader, int pageSize,
+                                                  int residentPages, Executor loadExecutor,
+                                                  Executor installExecutor) {
+        if (loader == null) {
+            throw new IllegalArgumentException("PageLoader must be non-null");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("page size must be positive");
+        }
+        if (residentPages < 3) {
+            // a page and its neighbours must fit
+            throw new IllegalArgumentException("resident pages must be at least 3");
+        }
+        if (loadExecutor == null || installExecutor == null) {
+            throw new IllegalArgumentException("Executor must be non-null");
+        }
+        return new PagedList<E>(loader, pageSize, residentPages, loadExecutor, installExecutor);
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableList} that may be
+     * modified from any thread, and that notifies its listeners on the given
+     * {@code Executor}. Each modification is applied atomically to the
+     * latest contents of the list, and recorded. The recorded changes are
+     * delivered in batches: when the list changes and no delivery is pending,
+     * a task is submitted to the {@code Executor} that notifies listeners of
+     * every change made up to the time it runs, merged as they would be
+     * within {@link BulkObservableList#beginChange beginChange} and
+     * {@code endChange}. A change begun with {@code beginChange} holds back
+     * delivery until it ends.
+     * <p>
+     * Reading the list returns the contents as of the last delivery, so that
+     * what listeners read is always consistent with what they have been
+     * told. Reads should therefore be made on the {@code Executor}, typically
+     * the event dispatch thread by way of {@code EventQueue.invokeLater}.
+     * Indices given to the methods that modify the list refer to its latest
+     * contents, which may include changes that haven't yet been delivered.
+     * Deliveries never overlap, whatever the {@code Executor}.
+     *
+     * @param executor the {@code Executor} to notify listeners on
+     * @return the concurrent list
+     * @throws IllegalArgumentException if {@code executor} is {@code null}
+     */
+    public static <E> BulkObservableList<E> concurrentList(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must be non-null");
+        }
+        return new ConcurrentList<E>(executor);
+    }
+
+    /**
+     * Creates and returns an {@code ObservableIntList} holding the given
+     * values, which are stored as {@code int} primitives rather than as
+     * {@code Integer} objects. The array is copied.
+     *
+     * @param values the initial values of the list
+     * @return an {@code ObservableIntList}
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     */
+    public static ObservableIntList observableIntList(int... values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values must be non-null");
+        }
+        return new IntList(values.clone(), values.length);
+    }
+
+    /**
+     * Creates and returns an {@code ObservableLongList} holding the given
+     * values, which are stored as {@code long} primitives rather than as
+     * {@code Long} objects. The array is copied.
+     *
+     * @param values the initial values of the list
+     * @return an {@code ObservableLongList}
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     */
+    public static ObservableLongList observableLongList(long... values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values must be non-null");
+        }
+        return new LongList(values.clone(), values.length);
+    }
+
+    /**
+     * Creates and returns an {@code ObservableDoubleList} holding the given
+     * values, which are stored as {@code double} primitives rather than as
+     * {@code Double} objects. The array is copied.
+     *
+     * @param values the initial values of the list
+     * @return an {@code ObservableDoubleList}
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     */
+    public static ObservableDoubleList observableDoubleList(double... values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values must be non-null");
+        }
+        return new DoubleList(values.clone(), values.length);
+    }
 
     /**
      * {@code ObservableListHelper} is created by {@code observableListHelper},
@@ -108,13 +377,43 @@ public final class ObservableCollections {
             }
             list.fireElementChanged(index);
         }
+
+        /**
+         * Sends notification that properties of the elements in the given
+         * range have changed. {@code ObservableListPropertyListeners} are
+         * notified once, with the names of the properties; other listeners
+         * are notified for each element.
+         *
+         * @param fromIndex the index of the first element that has changed
+         * @param toIndex the index after the last element that has changed
+         * @param propertyNames the names of the properties that have changed;
+         *        if none are given, any property may have changed
+         * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0},
+         *         {@code toIndex > size} or {@code fromIndex > toIndex}
+         */
+        public void fireElementsChanged(int fromIndex, int toIndex, String... propertyNames) {
+            if (fromIndex < 0 || toIndex > list.size() || fromIndex > toIndex) {
+                throw new ArrayIndexOutOfBoundsException("Illegal range");
+            }
+
+            Set<String> names = null;
+            if (propertyNames.length != 0) {
+                names = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(propertyNames)));
+            }
+
+            list.fireElementsChanged(fromIndex, toIndex - fromIndex, names);
+        }
     }
 
     private static final class ObservableMapImpl<K,V> extends AbstractMap<K,V> 
-            implements ObservableMap<K,V> {
+            implements BulkObservableMap<K,V> {
+        private static final Object ABSENT = new Object();
+
         private Map<K,V> map;
         private List<ObservableMapListener> listeners;
         private Set<Map.Entry<K,V>> entrySet;
+        private int changeDepth;
+        private Map<Object, Object> originals;
         
         ObservableMapImpl(Map<K,V> map) {
             this.map = map;
@@ -122,11 +421,18 @@ public final class ObservableCollections {
         }
         
         public void clear() {
-            // Remove all elements via iterator to trigger notification
-            Iterator<K> iterator = keySet().iterator();
-            while (iterator.hasNext()) {
-                iterator.next();
-                iterator.remove();
+            if (map.isEmpty()) {
+                return;
+            }
+
+            beginChange();
+            try {
+                for (Map.Entry<K,V> entry : map.entrySet()) {
+                    record(entry.getKey(), entry.getValue());
+                }
+                map.clear();
+            } finally {
+                endChange();
             }
         }
 
@@ -152,36 +458,44 @@ public final class ObservableCollections {
         }
         
         public V put(K key, V value) {
-            V lastValue;
-            if (containsKey(key)) {
-                lastValue = map.put(key, value);
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyValueChanged(this, key, lastValue);
-                }
+            // a change in size tells whether the key is new, without
+            // looking it up twice
+            int size = map.size();
+            V lastValue = map.put(key, value);
+
+            if (map.size() != size) {
+                fireKeyAdded(key);
             } else {
-                lastValue = map.put(key, value);
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyAdded(this, key);
-                }
+                fireKeyValueChanged(key, lastValue);
             }
+
             return lastValue;
         }
         
         public void putAll(Map<? extends K, ? extends V> m) {
-            for (K key : m.keySet()) {
-                put(key, m.get(key));
+            if (m.isEmpty()) {
+                return;
+            }
+
+            beginChange();
+            try {
+                for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                endChange();
             }
         }
         
         public V remove(Object key) {
-            if (containsKey(key)) {
-                V value = map.remove(key);
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyRemoved(this, key, value);
-                }
-                return value;
+            int size = map.size();
+            V value = map.remove(key);
+
+            if (map.size() != size) {
+                fireKeyRemoved(key, value);
             }
-            return null;
+
+            return value;
         }
         
         public int size() {
@@ -195,6 +509,106 @@ public final class ObservableCollections {
         public void removeObservableMapListener(ObservableMapListener listener) {
             listeners.remove(listener);
         }
+
+        public void beginChange() {
+            if (changeDepth++ == 0 && originals == null) {
+                originals = new LinkedHashMap<Object, Object>();
+            }
+        }
+
+        public void endChange() {
+            if (changeDepth == 0) {
+                throw new IllegalStateException("No change in progress");
+            }
+
+            if (--changeDepth != 0 || originals.isEmpty()) {
+                return;
+            }
+
+            Map<Object, Object> changed = originals;
+            originals = new LinkedHashMap<Object, Object>();
+
+            // leave out the keys that are back where they started
+            Iterator<Map.Entry<Object, Object>> iterator = changed.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Object, Object> entry = iterator.next();
+                boolean was = entry.getValue() != ABSENT;
+                boolean is = map.containsKey(entry.getKey());
+
+                if (was ? (is && map.get(entry.getKey()) == entry.getValue()) : !is) {
+                    iterator.remove();
+                }
+            }
+
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            Set<Object> keys = Collections.unmodifiableSet(changed.keySet());
+
+            for (ObservableMapListener listener : listeners) {
+                if (listener instanceof ObservableMapChangeListener) {
+                    ((ObservableMapChangeListener)listener).mapChanged(this, keys);
+                    continue;
+                }
+
+                for (Map.Entry<Object, Object> entry : changed.entrySet()) {
+                    Object key = entry.getKey();
+                    Object original = entry.getValue();
+
+                    if (original == ABSENT) {
+                        listener.mapKeyAdded(this, key);
+                    } else if (map.containsKey(key)) {
+                        listener.mapKeyValueChanged(this, key, original);
+                    } else {
+                        listener.mapKeyRemoved(this, key, original);
+                    }
+                }
+            }
+        }
+
+        private void fireKeyAdded(Object key) {
+            if (changeDepth != 0) {
+                if (!originals.containsKey(key)) {
+                    originals.put(key, ABSENT);
+                }
+                return;
+            }
+
+            for (ObservableMapListener listener : listeners) {
+                listener.mapKeyAdded(this, key);
+            }
+        }
+
+        private void fireKeyValueChanged(Object key, Object lastValue) {
+            if (changeDepth != 0) {
+                record(key, lastValue);
+                return;
+            }
+
+            for (ObservableMapListener listener : listeners) {
+                listener.mapKeyValueChanged(this, key, lastValue);
+            }
+        }
+
+        private void fireKeyRemoved(Object key, Object value) {
+            if (changeDepth != 0) {
+                record(key, value);
+                return;
+            }
+
+            for (ObservableMapListener listener : listeners) {
+                listener.mapKeyRemoved(this, key, value);
+            }
+        }
+
+        // Remembers the value a key had before the change, the first time
+        // it changes within it.
+        private void record(Object key, Object value) {
+            if (!originals.containsKey(key)) {
+                originals.put(key, value);
+            }
+        }
         
         
         private class EntryIterator implements Iterator<Map.Entry<K,V>> {
@@ -260,10 +674,13 @@ public final class ObservableCollections {
     
 
     private static final class ObservableListImpl<E> extends AbstractList<E>
-            implements ObservableList<E> {
+            implements BulkObservableList<E> {
         private final boolean supportsElementPropertyChanged;
         private List<E> list;
         private List<ObservableListListener> listeners;
+        private int changeDepth;
+        private ListChangeRecorder recorder;
+        private ElementObserver observer;
         
         ObservableListImpl(List<E> list, boolean supportsElementPropertyChanged) {
             this.list = list;
@@ -271,6 +688,11 @@ public final class ObservableCollections {
             this.supportsElementPropertyChanged = supportsElementPropertyChanged;
         }
 
+        void observeElements() {
+            observer = new ElementObserver(this);
+            observer.added(0, list.size());
+        }
+
         public E get(int index) {
             return list.get(index);
         }
@@ -281,27 +703,20 @@ public final class ObservableCollections {
 
         public E set(int index, E element) {
             E oldValue = list.set(index, element);
-            for (ObservableListListener listener : listeners) {
-                listener.listElementReplaced(this, index, oldValue);
-            }
+            fireElementReplaced(index, oldValue);
             return oldValue;
         }
 
         public void add(int index, E element) {
             list.add(index, element);
             modCount++;
-            for (ObservableListListener listener : listeners) {
-                listener.listElementsAdded(this, index, 1);
-            }
+            fireElementsAdded(index, 1);
         }
 
         public E remove(int index) {
             E oldValue = list.remove(index);
             modCount++;
-            for (ObservableListListener listener : listeners) {
-                listener.listElementsRemoved(this, index,
-                        java.util.Collections.singletonList(oldValue));
-            }
+            fireElementsRemoved(index, java.util.Collections.singletonList(oldValue));
             return oldValue;
         }
 
@@ -312,9 +727,7 @@ public final class ObservableCollections {
         public boolean addAll(int index, Collection<? extends E> c) {
             if (list.addAll(index, c)) {
                 modCount++;
-                for (ObservableListListener listener : listeners) {
-                    listener.listElementsAdded(this, index, c.size());
-                }
+                fireElementsAdded(index, c.size());
             }
             return false;
         }
@@ -324,10 +737,132 @@ public final class ObservableCollections {
             list.clear();
             modCount++;
             if (dup.size() != 0) {
-                for (ObservableListListener listener : listeners) {
-                    listener.listElementsRemoved(this, 0, dup);
+                fireElementsRemoved(0, dup);
+            }
+        }
+
+        protected void removeRange(int fromIndex, int toIndex) {
+            if (fromIndex >= toIndex) {
+                return;
+            }
+
+            List<E> range = list.subList(fromIndex, toIndex);
+            List<E> dup = new ArrayList<E>(range);
+            range.clear();
+            modCount++;
+            fireElementsRemoved(fromIndex, dup);
+        }
+
+        public boolean removeAll(Collection<?> c) {
+            return removeMatching(c, true);
+        }
+
+        public boolean retainAll(Collection<?> c) {
+            return removeMatching(c, false);
+        }
+
+        // Compacts the list in a single pass, recording each contiguous run of
+        // removed elements, then reports the runs within a change, from the
+        // end of the list so that the index of each run is still valid.
+        private boolean removeMatching(Collection<?> c, boolean matching) {
+            if (c == null) {
+                throw new NullPointerException();
+            }
+
+            List<Integer> starts = new ArrayList<Integer>();
+            List<List<E>> runs = new ArrayList<List<E>>();
+            List<E> run = null;
+            int index = 0;
+
+            if (list instanceof RandomAccess) {
+                int size = list.size();
+                int kept = 0;
+
+                for (; index < size; index++) {
+                    E element = list.get(index);
+                    if (c.contains(element) == matching) {
+                        if (run == null) {
+                            run = new ArrayList<E>();
+                            starts.add(index);
+                            runs.add(run);
+                        }
+                        run.add(element);
+                    } else {
+                        run = null;
+                        if (kept != index) {
+                            list.set(kept, element);
+                        }
+                        kept++;
+                    }
+                }
+
+                if (kept == size) {
+                    return false;
+                }
+
+                list.subList(kept, size).clear();
+            } else {
+                for (Iterator<E> iterator = list.iterator(); iterator.hasNext(); index++) {
+                    E element = iterator.next();
+                    if (c.contains(element) == matching) {
+                        if (run == null) {
+                            run = new ArrayList<E>();
+                            starts.add(index);
+                            runs.add(run);
+                        }
+                        run.add(element);
+                        iterator.remove();
+                    } else {
+                        run = null;
+                    }
+                }
+
+                if (runs.isEmpty()) {
+                    return false;
+                }
+            }
+
+            modCount++;
+            beginChange();
+            try {
+                for (int i = runs.size() - 1; i >= 0; i--) {
+                    fireElementsRemoved(starts.get(i), runs.get(i));
                 }
+            } finally {
+                endChange();
+            }
+
+            return true;
+        }
+
+        public void setAll(Collection<? extends E> c) {
+            List<E> elements = new ArrayList<E>(c);
+            int oldSize = list.size();
+            int newSize = elements.size();
+
+            // leave any common prefix and suffix of the same instances untouched
+            int prefix = 0;
+            int max = Math.min(oldSize, newSize);
+            while (prefix < max && list.get(prefix) == elements.get(prefix)) {
+                prefix++;
+            }
+
+            int suffix = 0;
+            max -= prefix;
+            while (suffix < max && list.get(oldSize - suffix - 1) == elements.get(newSize - suffix - 1)) {
+                suffix++;
+            }
+
+            int removed = oldSize - prefix - suffix;
+            int added = newSize - prefix - suffix;
+
+            if (removed == 1 && added == 1) {
+                set(prefix, elements.get(prefix));
+                return;
             }
+
+            removeRange(prefix, prefix + removed);
+            addAll(prefix, elements.subList(prefix, prefix + added));
         }
 
         public boolean containsAll(Collection<?> c) {
@@ -342,9 +877,93 @@ public final class ObservableCollections {
             return list.toArray();
         }
 
+        public void beginChange() {
+            if (changeDepth++ == 0 && recorder == null) {
+                recorder = new ListChangeRecorder();
+            }
+        }
+
+        public void endChange() {
+            if (changeDepth == 0) {
+                throw new IllegalStateException("No change in progress");
+            }
+
+            if (--changeDepth == 0 && !recorder.isEmpty()) {
+                ListChangeRecorder.deliver(this, recorder.takeChanges(), listeners);
+            }
+        }
+
+        private void fireElementsAdded(int index, int length) {
+            if (observer != null) {
+                observer.added(index, length);
+            }
+
+            if (changeDepth != 0) {
+                recorder.added(index, length);
+                return;
+            }
+
+            for (ObservableListListener listener : listeners) {
+                listener.listElementsAdded(this, index, length);
+            }
+        }
+
+        private void fireElementsRemoved(int index, List<E> oldElements) {
+            if (observer != null) {
+                observer.removed(index, oldElements);
+            }
+
+            if (changeDepth != 0) {
+                recorder.removed(index, oldElements);
+                return;
+            }
+
+            for (ObservableListListener listener : listeners) {
+                listener.listElementsRemoved(this, index, oldElements);
+            }
+        }
+
+        private void fireElementReplaced(int index, E oldElement) {
+            if (observer != null) {
+                observer.replaced(index, oldElement);
+            }
+
+            if (changeDepth != 0) {
+                recorder.replaced(index, oldElement);
+                return;
+            }
+
+            for (ObservableListListener listener : listeners) {
+                listener.listElementReplaced(this, index, oldElement);
+            }
+        }
+
         private void fireElementChanged(int index) {
+            fireElementsChanged(index, 1, null);
+        }
+
+        private void fireElementsChanged(int index, int length, Set<String> propertyNames) {
+            if (length == 0) {
+                return;
+            }
+
+            if (changeDepth != 0) {
+                // reported as the elements replacing themselves
+                for (int i = index; i < index + length; i++) {
+                    recorder.replaced(i, list.get(i));
+                }
+                return;
+            }
+
             for (ObservableListListener listener : listeners) {
-                listener.listElementPropertyChanged(this, index);
+                if (listener instanceof ObservableListPropertyListener) {
+                    ((ObservableListPropertyListener)listener).listElementsPropertyChanged(
+                            this, index, length, propertyNames);
+                } else {
+                    for (int i = index; i < index + length; i++) {
+                        listener.listElementPropertyChanged(this, i);
+                    }
+                }
             }
         }
 
@@ -360,4 +979,197 @@ public final class ObservableCollections {
             return supportsElementPropertyChanged;
         }
     }
+
+    /**
+     * Listens to the elements of an {@code ObservableListImpl} with a single
+     * {@code PropertyChangeListener}, mapping each element back to its index
+     * through an identity map. Indices are kept up to date lazily: each entry
+     * remembers the index it was last seen at, which is trusted below the
+     * lowest index modified since the entries were last renumbered.
+     */
+    private static final class ElementObserver implements PropertyChangeListener {
+        private final ObservableListImpl<?> list;
+        private final Map<Object, Entry> entries = new IdentityHashMap<Object, Entry>();
+        private final Map<Class<?>, Method[]> methods = new HashMap<Class<?>, Method[]>();
+        private int validBelow;
+
+        ElementObserver(ObservableListImpl<?> list) {
+            this.list = list;
+        }
+
+        void added(int index, int length) {
+            for (int i = index; i < index + length; i++) {
+                attach(list.list.get(i), i);
+            }
+            validBelow = Math.min(validBelow, index);
+        }
+
+        void removed(int index, List<?> oldElements) {
+            for (Object element : oldElements) {
+                detach(element);
+            }
+            validBelow = Math.min(validBelow, index);
+        }
+
+        void replaced(int index, Object oldElement) {
+            detach(oldElement);
+            attach(list.list.get(index), index);
+        }
+
+        private void attach(Object element, int index) {
+            if (element == null) {
+                return;
+            }
+
+            Entry entry = entries.get(element);
+            if (entry != null) {
+                entry.references++;
+                return;
+            }
+
+            Method[] listenerMethods = getListenerMethods(element.getClass());
+            if (listenerMethods == null) {
+                return;
+            }
+
+            invoke(listenerMethods[0], element);
+            entries.put(element, new Entry(index));
+        }
+
+        private void detach(Object element) {
+            Entry entry = (element == null) ? null : entries.get(element);
+            if (entry == null || --entry.references > 0) {
+                return;
+            }
+
+            entries.remove(element);
+            invoke(getListenerMethods(element.getClass())[1], element);
+        }
+
+        public void propertyChange(PropertyChangeEvent e) {
+            Object element = e.getSource();
+            Entry entry = entries.get(element);
+            if (entry == null) {
+                return;
+            }
+
+            List<?> elements = list.list;
+            Set<String> propertyNames = (e.getPropertyName() == null)
+                    ? null : Collections.singleton(e.getPropertyName());
+
+            if (entry.references > 1) {
+                // the element appears more than once; notify for each
+                for (int i = 0; i < elements.size(); i++) {
+                    if (elements.get(i) == element) {
+                        list.fireElementsChanged(i, 1, propertyNames);
+                    }
+                }
+                return;
+            }
+
+            if (entry.index >= validBelow || !isAt(element, entry.index)) {
+                renumber();
+
+                if (!isAt(element, entry.index)) {
+                    // the hint predates a replacement or the removal of
+                    // another occurrence; start over
+                    validBelow = 0;
+                    renumber();
+                }
+            }
+
+            list.fireElementsChanged(entry.index, 1, propertyNames);
+        }
+
+        private boolean isAt(Object element, int index) {
+            return index < list.list.size() && list.list.get(index) == element;
+        }
+
+        private void renumber() {
+            List<?> elements = list.list;
+            int size = elements.size();
+
+            for (int i = validBelow; i < size; i++) {
+                Entry entry = entries.get(elements.get(i));
+                if (entry != null) {
+                    entry.index = i;
+                }
+            }
+
+            validBelow = size;
+        }
+
+        // Returns the add and remove listener methods, or null if the
+        // class has none.
+        private Method[] getListenerMethods(Class<?> type) {
+            if (methods.containsKey(type)) {
+                return methods.get(type);
+            }
+
+            Method[] listenerMethods = new Method[] {
+                getAccessibleMethod(type, "addPropertyChangeListener"),
+                getAccessibleMethod(type, "removePropertyChangeListener")
+            };
+
+            if (listenerMethods[0] == null || listenerMethods[1] == null) {
+                listenerMethods = null;
+            }
+
+            methods.put(type, listenerMethods);
+            return listenerMethods;
+        }
+
+        // Returns the named listener method of the given class, in a form
+        // that can be invoked: the class's own, or failing that a public
+        // form from an interface or superclass. Returns null if there is no
+        // such method, or no form of it can be made accessible.
+        private static Method getAccessibleMethod(Class<?> type, String name) {
+            Method method;
+            try {
+                method = type.getMethod(name, PropertyChangeListener.class);
+            } catch (NoSuchMethodException nsme) {
+                return null;
+            } catch (SecurityException se) {
+                return null;
+            }
+
+            try {
+                // public methods of a non-public class
+                method.setAccessible(true);
+                return method;
+            } catch (RuntimeException re) {
+                // a SecurityException, or the class is in a package that
+                // its module doesn't open to us
+            }
+
+            for (Class<?> c : type.getInterfaces()) {
+                Method m = getAccessibleMethod(c, name);
+                if (m != null) {
+                    return m;
+                }
+            }
+
+            Class<?> superclass = type.getSuperclass();
+            return (superclass == null) ? null : getAccessibleMethod(superclass, name);
+        }
+
+        private void invoke(Method method, Object element) {
+            try {
+                method.invoke(element, this);
+            } catch (IllegalAccessException iae) {
+                throw new IllegalStateException(iae);
+            } catch (InvocationTargetException ite) {
+                throw new IllegalStateException(ite.getCause());
+            }
+        }
+
+        private static final class Entry {
+            private int references = 1;
+            private int index;
+
+            Entry(int index) {
+                this.index = index;
+            }
+        }
+    }
 }
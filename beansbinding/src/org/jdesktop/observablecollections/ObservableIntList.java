@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+/**
+ * An {@code ObservableList} of {@code int} values, backed by an array of
+ * primitives rather than of {@code Integer} objects. The typed methods read
+ * and write the values without boxing. Adding or setting a {@code null}
+ * element through the {@code List} interface throws
+ * {@code NullPointerException}.
+ *
+ * @see ObservableCollections#observableIntList
+ */
+public interface ObservableIntList extends BulkObservableList<Integer> {
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index the index of the value
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getInt(int index);
+
+    /**
+     * Replaces the value at the given index, notifying listeners that the
+     * element was replaced.
+     *
+     * @param index the index of the value
+     * @param value the new value
+     * @return the previous value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int setInt(int index, int value);
+
+    /**
+     * Appends a value to the end of the list.
+     *
+     * @param value the value to append
+     */
+    public void addInt(int value);
+
+    /**
+     * Inserts a value at the given index.
+     *
+     * @param index the index to insert at
+     * @param value the value to insert
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void addInt(int index, int value);
+
+    /**
+     * Appends the given values to the end of the list, notifying listeners
+     * of a single addition.
+     *
+     * @param values the values to append
+     * @throws NullPointerException if {@code values} is {@code null}
+     */
+    public void addAll(int[] values);
+
+    /**
+     * Inserts the given values at the given index, notifying listeners of a
+     * single addition.
+     *
+     * @param index the index to insert at
+     * @param values the values to insert
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws NullPointerException if {@code values} is {@code null}
+     */
+    public void addAll(int index, int[] values);
+
+    /**
+     * Replaces the contents of this list with the given values, notifying
+     * listeners only of the part of the list that differs, as described
+     * for {@link BulkObservableList#setAll(java.util.Collection) setAll}.
+     *
+     * @param values the new contents of the list
+     * @throws NullPointerException if {@code values} is {@code null}
+     */
+    public void setAll(int[] values);
+
+    /**
+     * Returns a new array holding the values of this list, in order.
+     *
+     * @return the values of this list
+     */
+    public int[] toIntArray();
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.List;
+
+/**
+ * Describes one contiguous change to an {@code ObservableList}, as delivered
+ * to an {@link ObservableListChangeListener} at the end of a
+ * {@link BulkObservableList#beginChange change}: the elements that were removed
+ * from a position in the list, and the number of elements that took their
+ * place.
+ *
+ * @see ObservableListChangeListener
+ */
+public final class ObservableListChange {
+    private final int index;
+    private final List<?> removedElements;
+    private final int addedCount;
+
+    /**
+     * Creates an {@code ObservableListChange}.
+     *
+     * @param index the index of the change in the list as it stands once all
+     *        preceding changes have been applied
+     * @param removedElements the elements that were removed
+     * @param addedCount the number of elements that were added in their place
+     */
+    public ObservableListChange(int index, List<?> removedElements, int addedCount) {
+        this.index = index;
+        this.removedElements = removedElements;
+        this.addedCount = addedCount;
+    }
+
+    /**
+     * Returns the index of the change. Changes are delivered in order of
+     * index, and the index takes all preceding changes into account, so it
+     * is also the index of the first added element in the changed list.
+     *
+     * @return the index of the change
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the elements that were removed at the index, which may be empty.
+     *
+     * @return the removed elements
+     */
+    public List<?> getRemovedElements() {
+        return removedElements;
+    }
+
+    /**
+     * Returns the number of elements that were added at the index, which may
+     * be {@code 0}.
+     *
+     * @return the number of added elements
+     */
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    /**
+     * Returns whether this change replaced elements one for one, that is
+     * whether as many elements were added as were removed.
+     *
+     * @return whether this change replaced elements one for one
+     */
+    public boolean isReplacement() {
+        return addedCount == removedElements.size();
+    }
+
+    public String toString() {
+        return getClass().getName() + " [index=" + index + ", removed=" + removedElements + ", added=" + addedCount + "]";
+    }
+}
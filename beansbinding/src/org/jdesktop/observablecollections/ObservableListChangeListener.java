@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.List;
+
+/**
+ * An {@code ObservableListListener} that can also be notified of all the
+ * changes made to an {@code ObservableList} within a
+ * {@link BulkObservableList#beginChange change} at once.
+ *
+ * @see BulkObservableList#beginChange
+ */
+public interface ObservableListChangeListener extends ObservableListListener {
+    /**
+     * Notification of the changes made to the list between the outermost
+     * {@code beginChange} and {@code endChange}. The changes are merged:
+     * they don't overlap or touch, are in order of index, and an element
+     * that was added and then removed within the change doesn't appear at
+     * all. They are delivered once the list already has its final contents.
+     * This method is called in place of the other notification methods
+     * for changes made within a change.
+     *
+     * @param list the {@code ObservableList} that has changed
+     * @param changes the changes, in order of index
+     */
+    public void listChanged(ObservableList list, List<ObservableListChange> changes);
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Set;
+
+/**
+ * An {@code ObservableListListener} that is also told which properties of
+ * the elements changed, and that can be notified of a change to a range of
+ * elements at once. Lists call
+ * {@link #listElementsPropertyChanged listElementsPropertyChanged} on such
+ * listeners instead of
+ * {@link #listElementPropertyChanged(ObservableList, int) listElementPropertyChanged}.
+ *
+ * @see ObservableCollections#observableBeanList
+ * @see ObservableCollections.ObservableListHelper#fireElementsChanged
+ */
+public interface ObservableListPropertyListener extends ObservableListListener {
+    /**
+     * Notification that properties of a range of elements in the list have
+     * changed.
+     *
+     * @param list the {@code ObservableList} that has changed
+     * @param index the index of the first element that changed
+     * @param length the number of elements that changed
+     * @param propertyNames the names of the properties that changed, or
+     *        {@code null} if any property may have changed
+     */
+    public void listElementsPropertyChanged(ObservableList list, int index, int length,
+                                            Set<String> propertyNames);
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+/**
+ * A read-only {@code ObservableList} derived from another
+ * {@code ObservableList}, which it listens to in order to stay up to date.
+ * Since the source list holds on to that listener, a view that is no longer
+ * needed should be {@link #dispose disposed} if the source list outlives it.
+ *
+ * @see ObservableCollections#filtered
+ * @see ObservableCollections#sorted
+ * @see ObservableCollections#mapped
+ */
+public interface ObservableListView<E> extends ObservableList<E> {
+    /**
+     * Stops this view listening to its source list, so that the source no
+     * longer refers to it. The view no longer follows the source, and should
+     * not be used afterwards. A view whose source is itself a view leaves
+     * that view alone. Calling this method more than once has no effect.
+     */
+    public void dispose();
+}
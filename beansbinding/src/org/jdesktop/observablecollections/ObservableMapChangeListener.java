@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Set;
+
+/**
+ * An {@code ObservableMapListener} that can also be notified of all the
+ * changes made to an {@code ObservableMap} within a
+ * {@link BulkObservableMap#beginChange change} at once, including those made by
+ * {@code putAll} and {@code clear}.
+ *
+ * @see BulkObservableMap#beginChange
+ */
+public interface ObservableMapChangeListener extends ObservableMapListener {
+    /**
+     * Notification that a change to the map has ended. Only the net effect
+     * of the change is reported: a key that was added and then removed again,
+     * or whose value was replaced and then restored, is left out.
+     *
+     * @param map the {@code ObservableMap} that changed
+     * @param keys the keys that were added or removed, or whose value changed
+     */
+    public void mapChanged(ObservableMap map, Set<?> keys);
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.List;
+
+/**
+ * Supplies the elements of a {@link ObservableCollections#pagedList paged}
+ * list a page at a time, from wherever they are kept.
+ *
+ * @param <E> the type of element
+ * @see ObservableCollections#pagedList
+ */
+public interface PageLoader<E> {
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size();
+
+    /**
+     * Loads a range of elements. This is called on the paged list's loading
+     * {@code Executor}, and may block.
+     *
+     * @param offset the index of the first element to load
+     * @param count the number of elements to load
+     * @return the elements, which must number exactly {@code count}
+     */
+    public List<? extends E> loadPage(int offset, int count);
+}
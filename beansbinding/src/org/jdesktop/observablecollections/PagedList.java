@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * The list returned by {@code ObservableCollections.pagedList}. Resident
+ * pages are kept in a {@code LinkedHashMap} in access order, which evicts the
+ * least recently used page once there are too many. Pages are loaded on the
+ * loading {@code Executor} and installed by way of the installing one, so
+ * apart from the loading itself the list is confined to the thread that
+ * installs pages.
+ */
+final class PagedList<E> extends AbstractList<E> implements ObservableList<E> {
+    private final PageLoader<? extends E> loader;
+    private final Executor loadExecutor;
+    private final Executor installExecutor;
+    private final int pageSize;
+    private final int size;
+    private final Map<Integer, Object[]> pages;
+    private final Map<Integer, Boolean> loading;
+    private final List<ObservableListListener> listeners;
+
+    PagedList(PageLoader<? extends E> loader, int pageSize, final int residentPages,
+              Executor loadExecutor, Executor installExecutor) {
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.loadExecutor = loadExecutor;
+        this.installExecutor = installExecutor;
+        size = loader.size();
+        loading = new HashMap<Integer, Boolean>();
+        listeners = new CopyOnWriteArrayList<ObservableListListener>();
+
+        pages = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                return size() > residentPages;
+            }
+        };
+    }
+
+    /**
+     * Returns the element at the given index, or {@code null} if its page
+     * isn't resident, in which case the page is requested. The pages either
+     * side of the index are requested too if they aren't resident, so that
+     * they're likely to be by the time they're needed.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        int page = index / pageSize;
+        Object[] elements = pages.get(page);
+
+        if (elements == null) {
+            request(page);
+        }
+
+        if (page > 0) {
+            request(page - 1);
+        }
+
+        if ((page + 1) * pageSize < size) {
+            request(page + 1);
+        }
+
+        return (elements == null) ? null : (E)elements[index - page * pageSize];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void request(final int page) {
+        if (pages.containsKey(page) || loading.containsKey(page)) {
+            return;
+        }
+
+        loading.put(page, Boolean.TRUE);
+
+        final int offset = page * pageSize;
+        final int count = Math.min(pageSize, size - offset);
+
+        loadExecutor.execute(new Runnable() {
+            public void run() {
+                List<? extends E> elements = null;
+
+                try {
+                    elements = loader.loadPage(offset, count);
+                } finally {
+                    // on failure, forget the request so the page is asked
+                    // for again the next time it's needed
+                    final Object[] loaded = (elements == null) ? null : elements.toArray();
+
+                    installExecutor.execute(new Runnable() {
+                        public void run() {
+                            install(page, loaded);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void install(int page, Object[] elements) {
+        loading.remove(page);
+
+        if (elements == null) {
+            return;
+        }
+
+        int offset = page * pageSize;
+        int count = Math.min(pageSize, size - offset);
+
+        if (elements.length != count) {
+            throw new IllegalStateException("PageLoader returned " + elements.length +
+                                            " elements, expected " + count);
+        }
+
+        pages.put(page, elements);
+        fireElementsFilled(offset, count);
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean supportsElementPropertyChanged() {
+        return false;
+    }
+
+    // Reports the filled rows as replacing their null placeholders: in a
+    // single change to those listeners that accept one, and row by row to
+    // the others.
+    private void fireElementsFilled(int index, int length) {
+        List<ObservableListChange> changes = null;
+
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListChangeListener) {
+                if (changes == null) {
+                    changes = Collections.singletonList(new ObservableListChange(
+                            index, Collections.nCopies(length, null), length));
+                }
+                ((ObservableListChangeListener)listener).listChanged(this, changes);
+            } else {
+                for (int i = index; i < index + length; i++) {
+                    listener.listElementReplaced(this, i, null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base class of the {@code ObservableLists} backed by an array of primitive
+ * values. Subclasses own the array and provide the typed accessors; this
+ * class moves ranges of the array, tracks the size and notifies listeners.
+ * Elements are only boxed when they are read through the {@code List}
+ * interface or reported as removed or replaced.
+ */
+abstract class PrimitiveList<E> extends AbstractList<E> implements BulkObservableList<E> {
+    private final List<ObservableListListener> listeners =
+            new CopyOnWriteArrayList<ObservableListListener>();
+    private int changeDepth;
+    private ListChangeRecorder recorder;
+
+    int size;
+
+    PrimitiveList(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns the backing array.
+     */
+    abstract Object array();
+
+    /**
+     * Returns the length of the backing array.
+     */
+    abstract int capacity();
+
+    /**
+     * Replaces the backing array with one of the given length, holding the
+     * same elements.
+     */
+    abstract void grow(int capacity);
+
+    /**
+     * Returns an unmodifiable list of copies of the elements in the given range.
+     */
+    abstract List<E> copy(int fromIndex, int toIndex);
+
+    public final int size() {
+        return size;
+    }
+
+    public E remove(int index) {
+        checkIndex(index);
+        E oldValue = get(index);
+        close(index, index + 1);
+        fireElementsRemoved(index, Collections.singletonList(oldValue));
+        return oldValue;
+    }
+
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+
+        List<E> oldElements = copy(fromIndex, toIndex);
+        close(fromIndex, toIndex);
+        fireElementsRemoved(fromIndex, oldElements);
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        beginChange();
+        try {
+            return super.removeAll(c);
+        } finally {
+            endChange();
+        }
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        beginChange();
+        try {
+            return super.retainAll(c);
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Makes room for {@code length} elements at {@code index}. The caller
+     * fills them in and then calls {@code fireElementsAdded}.
+     */
+    final void open(int index, int length) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        if (size + length > capacity()) {
+            grow(Math.max(size + length, capacity() * 3 / 2 + 1));
+        }
+
+        Object array = array();
+        System.arraycopy(array, index, array, index + length, size - index);
+        size += length;
+        modCount++;
+    }
+
+    private void close(int fromIndex, int toIndex) {
+        Object array = array();
+        System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    final void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Replaces the range of {@code removed} elements at {@code index} with
+     * {@code added} elements, which the caller fills in afterwards, from
+     * {@code setAll}. Returns whether listeners are still to be notified of
+     * the new elements, by way of {@code fireElementsAdded}.
+     */
+    final boolean replaceRange(int index, int removed, int added) {
+        removeRange(index, index + removed);
+
+        if (added == 0) {
+            return false;
+        }
+
+        open(index, added);
+        return true;
+    }
+
+    public void beginChange() {
+        if (changeDepth++ == 0 && recorder == null) {
+            recorder = new ListChangeRecorder();
+        }
+    }
+
+    public void endChange() {
+        if (changeDepth == 0) {
+            throw new IllegalStateException("No change in progress");
+        }
+
+        if (--changeDepth == 0 && !recorder.isEmpty()) {
+            ListChangeRecorder.deliver(this, recorder.takeChanges(), listeners);
+        }
+    }
+
+    final void fireElementsAdded(int index, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        if (changeDepth != 0) {
+            recorder.added(index, length);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementsAdded(this, index, length);
+        }
+    }
+
+    private void fireElementsRemoved(int index, List<E> oldElements) {
+        if (changeDepth != 0) {
+            recorder.removed(index, oldElements);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementsRemoved(this, index, oldElements);
+        }
+    }
+
+    final void fireElementReplaced(int index, E oldElement) {
+        if (changeDepth != 0) {
+            recorder.replaced(index, oldElement);
+            return;
+        }
+
+        for (ObservableListListener listener : listeners) {
+            listener.listElementReplaced(this, index, oldElement);
+        }
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns {@code true}: the elements are immutable values, so every
+     * change to the list is reported without listening to them.
+     */
+    public boolean supportsElementPropertyChanged() {
+        return true;
+    }
+}
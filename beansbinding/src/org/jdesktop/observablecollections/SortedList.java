@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2006-2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.observablecollections;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The view returned by {@code ObservableCollections.sorted}. The view keeps
+ * a node for each element in two {@code IndexTrees}, one in source order and
+ * one in sorted order, linked to each other, so that the view position of a
+ * source index and the source index of a view position are found in
+ * logarithmic time. New and changed elements are placed by descending the
+ * sorted tree. Elements that compare as equal are kept in source order, so
+ * the view is stable.
+ */
+final class SortedList<E> extends DerivedList<E,E> {
+    private final Comparator<? super E> comparator;
+    private final IndexTree bySource = new IndexTree();
+    private final IndexTree sorted = new IndexTree();
+
+    SortedList(ObservableList<E> source, Comparator<? super E> comparator) {
+        super(source);
+        this.comparator = comparator;
+
+        int size = source.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            bySource.insert(i, false);
+        }
+
+        // Arrays.sort is stable, which keeps equal elements in source order
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                return SortedList.this.comparator.compare(sourceElement(i1), sourceElement(i2));
+            }
+        });
+
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            link(bySource.get(index), sorted.insert(i, false), sourceElement(index));
+        }
+
+        listen();
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return (E)sorted.get(index).value;
+    }
+
+    public int size() {
+        return sorted.size();
+    }
+
+    void sourceAdded(int index, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        // every new element has its source index before any is placed, as
+        // placing compares source indices
+        for (int i = index; i < index + length; i++) {
+            bySource.insert(i, false);
+        }
+
+        if (length > 1) {
+            beginChange();
+        }
+
+        try {
+            for (int i = index; i < index + length; i++) {
+                E element = sourceElement(i);
+                int position = insertionPoint(element, i);
+                link(bySource.get(i), sorted.insert(position, false), element);
+                fireElementsAdded(position, 1);
+            }
+        } finally {
+            if (length > 1) {
+                endChange();
+            }
+        }
+    }
+
+    void sourceRemoved(int index, List<?> oldElements) {
+        int length = oldElements.size();
+
+        if (length > 1) {
+            beginChange();
+        }
+
+        try {
+            for (int i = 0; i < length; i++) {
+                IndexTree.Node node = bySource.get(index);
+                int position = sorted.indexOf(node.link);
+                sorted.remove(node.link);
+                bySource.remove(node);
+                fireElementsRemoved(position, Collections.singletonList(oldElements.get(i)));
+            }
+        } finally {
+            if (length > 1) {
+                endChange();
+            }
+        }
+    }
+
+    void sourceReplaced(int index, Object oldElement) {
+        update(index, oldElement, false, null);
+    }
+
+    void sourceChanged(int index, Set<String> propertyNames) {
+        update(index, sourceElement(index), true, propertyNames);
+    }
+
+    // Elements changed within the source's change may have been modified in
+    // place before other elements were added, so that the view is no longer
+    // sorted until they are moved. Removing every changed element before
+    // adding any means placing an element only ever descends a sorted tree.
+    void sourceChanged(List<ObservableListChange> changes) {
+        int added = 0;
+        for (ObservableListChange change : changes) {
+            List<?> removed = change.getRemovedElements();
+            if (!removed.isEmpty()) {
+                sourceRemoved(change.getIndex() - added, removed);
+            }
+            added += change.getAddedCount();
+        }
+
+        for (ObservableListChange change : changes) {
+            sourceAdded(change.getIndex(), change.getAddedCount());
+        }
+    }
+
+    // Moves a single source element to where it now sorts.
+    private void update(int index, Object oldElement, boolean changed, Set<String> propertyNames) {
+        E element = sourceElement(index);
+        IndexTree.Node node = bySource.get(index);
+        int position = sorted.indexOf(node.link);
+
+        if (fits(position, element, index)) {
+            node.link.value = element;
+            if (changed) {
+                fireElementChanged(position, propertyNames);
+            } else {
+                fireElementReplaced(position, oldElement);
+            }
+            return;
+        }
+
+        sorted.remove(node.link);
+        int newPosition = insertionPoint(element, index);
+        link(node, sorted.insert(newPosition, false), element);
+
+        beginChange();
+        try {
+            fireElementsRemoved(position, Collections.singletonList(oldElement));
+            fireElementsAdded(newPosition, 1);
+        } finally {
+            endChange();
+        }
+    }
+
+    private static void link(IndexTree.Node sourceNode, IndexTree.Node sortedNode, Object element) {
+        sourceNode.link = sortedNode;
+        sortedNode.link = sourceNode;
+        sortedNode.value = element;
+    }
+
+    // Returns whether the element, at the given source index, still sorts at
+    // the given position.
+    private boolean fits(int position, E element, int index) {
+        return (position == 0 || compareTo(sorted.get(position - 1), element, index) < 0) &&
+               (position == size() - 1 || compareTo(sorted.get(position + 1), element, index) > 0);
+    }
+
+    // Returns the position at which the element, at the given source index,
+    // belongs.
+    private int insertionPoint(E element, int index) {
+        int position = 0;
+        IndexTree.Node node = sorted.root();
+
+        while (node != null) {
+            if (compareTo(node, element, index) < 0) {
+                position += IndexTree.size(node.left()) + 1;
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+
+        return position;
+    }
+
+    // Compares the element of a node of the sorted tree with the given
+    // element, falling back on source order.
+    @SuppressWarnings("unchecked")
+    private int compareTo(IndexTree.Node node, E element, int index) {
+        int result = comparator.compare((E)node.value, element);
+        if (result != 0) {
+            return result;
+        }
+
+        int nodeIndex = bySource.indexOf(node.link);
+        return nodeIndex < index ? -1 : (nodeIndex == index ? 0 : 1);
+    }
+}
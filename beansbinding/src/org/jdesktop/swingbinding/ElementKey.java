@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.swingbinding;
+
+/**
+ * {@code ElementKey} identifies the elements of a bound {@code List}, so
+ * that when a {@code JTableBinding} or {@code JListBinding} is given a new
+ * {@code List}, the elements it has in common with the previous one can be
+ * recognized. The binding then compares the two lists and notifies the
+ * component of only the rows that were actually inserted, removed or
+ * changed, instead of replacing every row and losing the component's
+ * selection and scroll position.
+ * <p>
+ * Two elements are considered the same when the keys returned for them by
+ * {@link #getKey} are equal. The {@link #IDENTITY} key considers elements
+ * the same only when they are the same instance, and the {@link #EQUALITY}
+ * key when they are equal. When an element is matched with a different but
+ * equivalent instance, its row is reported as changed.
+ *
+ * @param <E> the type of element
+ *
+ * @see JTableBinding#setElementKey
+ * @see JListBinding#setElementKey
+ */
+public abstract class ElementKey<E> {
+
+    /**
+     * An {@code ElementKey} that considers two elements the same only when
+     * they are the same instance.
+     */
+    public static final ElementKey<Object> IDENTITY = new ElementKey<Object>() {
+        public Object getKey(Object element) {
+            return element;
+        }
+    };
+
+    /**
+     * An {@code ElementKey} that considers two elements the same when they
+     * are equal.
+     */
+    public static final ElementKey<Object> EQUALITY = new ElementKey<Object>() {
+        public Object getKey(Object element) {
+            return element;
+        }
+    };
+
+    /**
+     * Returns the key for the given element. Keys are compared with
+     * {@code equals} and must have a consistent {@code hashCode}.
+     *
+     * @param element the element, which may be {@code null}
+     * @return the key, which may be {@code null}
+     */
+    public abstract Object getKey(E element);
+}
@@ -365,6 +365,10 @@ public final class JComboBoxBinding<E, SS, TS> extends AutoBinding<SS, List<E>,
             contentsChanged(row, row);
         }
 
+        protected void changed(int row, int length) {
+            contentsChanged(row, row + length - 1);
+        }
+
         private void contentsChanged(int row0, int row1) {
             ListDataEvent e = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, row0, row1);
             int size = listeners.size();
@@ -193,6 +193,7 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
     private JList list;
     private BindingListModel model;
     private DetailBinding detailBinding;
+    private ElementKey<? super E> elementKey;
 
     /**
      * Constructs an instance of {@code JListBinding}.
@@ -304,6 +305,33 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         return detailBinding;
     }
 
+    /**
+     * Sets the {@code ElementKey} used to compare the elements of a new
+     * source {@code List} with those of the previous one. By default there
+     * is none, and each new {@code List} replaces all of the list's items.
+     * With a key, only the items that differ are reported to the list as
+     * inserted, removed or changed, so that the list keeps its selection
+     * and scroll position, and per-row state is kept for unchanged items.
+     *
+     * @param elementKey the key, or {@code null} to replace all items
+     * @see ElementKey
+     */
+    public void setElementKey(ElementKey<? super E> elementKey) {
+        this.elementKey = elementKey;
+    }
+
+    /**
+     * Returns the {@code ElementKey} used to compare the elements of a new
+     * source {@code List} with those of the previous one, which may be
+     * {@code null}.
+     *
+     * @return the key, or {@code null}
+     * @see #setElementKey
+     */
+    public ElementKey<? super E> getElementKey() {
+        return elementKey;
+    }
+
     private final Property DETAIL_PROPERTY = new Property() {
         public Class<Object> getWriteType(Object source) {
             return Object.class;
@@ -390,6 +418,9 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                     resetListSelection();
                     model = new BindingListModel();
                     list.setModel(model);
+                } else if (elementKey != null) {
+                    model.replaceElements((List)pse.getNewValue(), elementKey);
+                    return;
                 } else {
                     resetListSelection();
                 }
@@ -427,6 +458,10 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             contentsChanged(row, row);
         }
 
+        protected void valuesChanged(int row, int length, int column) {
+            contentsChanged(row, row + length - 1);
+        }
+
         protected void added(int index, int length) {
             assert length > 0; // enforced by ListBindingManager
 
@@ -449,6 +484,10 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             contentsChanged(row, row);
         }
 
+        protected void changed(int row, int length) {
+            contentsChanged(row, row + length - 1);
+        }
+
         private void contentsChanged(int row0, int row1) {
             ListDataEvent e = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, row0, row1);
             for (ListDataListener listener : listeners) {
@@ -211,6 +211,7 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
     private JTable table;
     private BindingTableModel model;
     private boolean editable = true;
+    private ElementKey<? super E> elementKey;
     private List<ColumnBinding> columnBindings = new ArrayList<ColumnBinding>();
 
     /**
@@ -294,6 +295,33 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         return editable;
     }
 
+    /**
+     * Sets the {@code ElementKey} used to compare the elements of a new
+     * source {@code List} with those of the previous one. By default there
+     * is none, and each new {@code List} replaces all of the table's rows.
+     * With a key, only the rows that differ are reported to the table as
+     * inserted, removed or changed, so that the table keeps its selection
+     * and scroll position, and per-row state is kept for unchanged rows.
+     *
+     * @param elementKey the key, or {@code null} to replace all rows
+     * @see ElementKey
+     */
+    public void setElementKey(ElementKey<? super E> elementKey) {
+        this.elementKey = elementKey;
+    }
+
+    /**
+     * Returns the {@code ElementKey} used to compare the elements of a new
+     * source {@code List} with those of the previous one, which may be
+     * {@code null}.
+     *
+     * @return the key, or {@code null}
+     * @see #setElementKey
+     */
+    public ElementKey<? super E> getElementKey() {
+        return elementKey;
+    }
+
     /**
      * Creates a {@code ColumnBinding} and adds it to the end of the list of {@code ColumnBindings}
      * maintained by this {@code JTableBinding}.
@@ -685,6 +713,9 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                     table = tableP.getValue(getTargetObject());
                     model = new BindingTableModel();
                     table.setModel(model);
+                } else if (elementKey != null) {
+                    model.replaceElements((List)pse.getNewValue(), elementKey);
+                    return;
                 }
 
                 model.setElements((List)pse.getNewValue(), true);
@@ -785,6 +816,10 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             fireTableModelEvent(new TableModelEvent(this, row, row, column));
         }
 
+        protected void valuesChanged(int row, int length, int column) {
+            fireTableModelEvent(new TableModelEvent(this, row, row + length - 1, column));
+        }
+
         protected void added(int row, int length) {
             assert length > 0; // enforced by ListBindingManager
 
@@ -801,6 +836,10 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             fireTableModelEvent(new TableModelEvent(this, row, row, TableModelEvent.ALL_COLUMNS));
         }
 
+        protected void changed(int row, int length) {
+            fireTableModelEvent(new TableModelEvent(this, row, row + length - 1, TableModelEvent.ALL_COLUMNS));
+        }
+
         public String getColumnName(int columnIndex) {
             ColumnBinding binding = JTableBinding.this.getColumnBinding(columnIndex);
             return binding.getColumnName() == null ? binding.getSourceProperty().toString() : binding.getColumnName();
@@ -5,9 +5,14 @@
 
 package org.jdesktop.swingbinding;
 
+import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.Executor;
 import javax.swing.*;
 import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BindingDispatcher;
+import org.jdesktop.beansbinding.BindingScheduler;
+import org.jdesktop.beansbinding.TimerWheel;
 import org.jdesktop.beansbinding.ObjectProperty;
 import org.jdesktop.beansbinding.Property;
 
@@ -21,6 +26,14 @@ import org.jdesktop.beansbinding.Property;
  */
 public class SwingBindings {
     
+    private static final Executor EVENT_QUEUE_EXECUTOR = new Executor() {
+        public void execute(Runnable command) {
+            SwingUtilities.invokeLater(command);
+        }
+    };
+    private static BindingDispatcher eventQueueDispatcher;
+    private static TimerWheel eventQueueTimerWheel;
+
     private SwingBindings() {}
     
     /**
@@ -366,4 +379,111 @@ public class SwingBindings {
         return new JComboBoxBinding<E, SS, TS>(strategy, sourceObject, sourceListProperty, targetObject, targetJComboBoxProperty, name);
     }
     
+    /**
+     * Returns an {@code Executor} that runs tasks on the event dispatch
+     * thread, by way of {@code SwingUtilities.invokeLater}. It can be given
+     * to {@code ObservableCollections.pagedList} as the {@code Executor} that
+     * installs pages, for a paged list bound to a Swing component.
+     *
+     * @return the event dispatch thread {@code Executor}
+     * @see org.jdesktop.observablecollections.ObservableCollections#pagedList
+     */
+    public static Executor getEventQueueExecutor() {
+        return EVENT_QUEUE_EXECUTOR;
+    }
+
+    /**
+     * Returns a {@code BindingDispatcher} for the event dispatch thread,
+     * which drains by way of {@code SwingUtilities.invokeLater}. Setting it
+     * on a binding whose source may change on other threads confines the
+     * handling of those changes to the event dispatch thread.
+     *
+     * @return the event dispatch thread {@code BindingDispatcher}
+     * @see org.jdesktop.beansbinding.Binding#setDispatcher
+     */
+    public static synchronized BindingDispatcher getEventQueueDispatcher() {
+        if (eventQueueDispatcher == null) {
+            eventQueueDispatcher = new BindingDispatcher() {
+                private final Runnable drainer = new Runnable() {
+                    public void run() {
+                        drain();
+                    }
+                };
+
+                protected boolean isDispatchThread() {
+                    return SwingUtilities.isEventDispatchThread();
+                }
+
+                protected void requestDrain() {
+                    SwingUtilities.invokeLater(drainer);
+                }
+            };
+        }
+
+        return eventQueueDispatcher;
+    }
+
+    /**
+     * Returns a {@code TimerWheel} that ticks every 10 milliseconds and runs
+     * expired tasks on the event dispatch thread, by way of
+     * {@code SwingUtilities.invokeLater}. Throttled and debounced
+     * {@code AutoBindings} whose target object is an AWT component use it
+     * unless they are given another wheel.
+     *
+     * @return the event dispatch thread {@code TimerWheel}
+     * @see AutoBinding#setTimerWheel
+     */
+    public static synchronized TimerWheel getEventQueueTimerWheel() {
+        if (eventQueueTimerWheel == null) {
+            eventQueueTimerWheel = new TimerWheel(10, EVENT_QUEUE_EXECUTOR);
+        }
+
+        return eventQueueTimerWheel;
+    }
+
+    /**
+     * Creates a {@code BindingScheduler} that flushes on the event dispatch
+     * thread, by way of {@code SwingUtilities.invokeLater}. Bindings using it
+     * are synced at most once per pass through the event queue.
+     *
+     * @return the {@code BindingScheduler}
+     */
+    public static BindingScheduler createEventQueueScheduler() {
+        return BindingScheduler.create(EVENT_QUEUE_EXECUTOR);
+    }
+
+    /**
+     * Creates a {@code BindingScheduler} that flushes on the event dispatch
+     * thread, the given number of milliseconds after a binding is first marked
+     * dirty. Bindings using it are synced at most once per interval.
+     *
+     * @param delay the delay in milliseconds
+     * @return the {@code BindingScheduler}
+     * @throws IllegalArgumentException if {@code delay} is negative
+     */
+    public static BindingScheduler createTimerScheduler(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must be non-negative");
+        }
+
+        return new TimerScheduler(delay);
+    }
+
+    private static final class TimerScheduler extends BindingScheduler implements ActionListener {
+        private final javax.swing.Timer timer;
+
+        private TimerScheduler(int delay) {
+            timer = new javax.swing.Timer(delay, this);
+            timer.setRepeats(false);
+        }
+
+        protected void requestFlush() {
+            timer.start();
+        }
+
+        public void actionPerformed(ActionEvent ae) {
+            flush();
+        }
+    }
+
 }
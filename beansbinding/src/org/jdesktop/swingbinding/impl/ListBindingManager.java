@@ -5,22 +5,48 @@
 
 package org.jdesktop.swingbinding.impl;
 
+import org.jdesktop.observablecollections.ObservableDoubleList;
+import org.jdesktop.observablecollections.ObservableIntList;
 import org.jdesktop.observablecollections.ObservableList;
-import org.jdesktop.observablecollections.ObservableListListener;
+import org.jdesktop.observablecollections.ObservableListChange;
+import org.jdesktop.observablecollections.ObservableListChangeListener;
+import org.jdesktop.observablecollections.ObservableListPropertyListener;
+import org.jdesktop.observablecollections.ObservableLongList;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.jdesktop.beansbinding.*;
+import org.jdesktop.swingbinding.ElementKey;
 
 /**
  * @author sky
  * @author Shannon Hickey
  */
-public abstract class ListBindingManager implements ObservableListListener {
+public abstract class ListBindingManager implements ObservableListChangeListener,
+                                                    ObservableListPropertyListener {
+    // beyond this many insertions and removals, replacing every row is
+    // about as cheap as describing the edits
+    private static final int MAX_EDITS = 1024;
+
     private AbstractColumnBinding[] bindings;
     private ReusableBinding reusableBinding;
     private List<?> elements;
     private List<ColumnDescriptionManager> managers;
+    // for each column, whether its values are the elements of a primitive
+    // list as they are, so that reading them can skip reusableBinding
+    private boolean[] direct;
+    // while a sequence of row events is delivered, the rows as the component
+    // has been told of them so far: the first replayBoundary elements,
+    // followed by replayOld from replayOldIndex on; null otherwise
+    private List<?> replayOld;
+    private int replayBoundary;
+    private int replayOldIndex;
 
     public ListBindingManager() {
         bindings = getColBindings();
@@ -68,6 +94,8 @@ public abstract class ListBindingManager implements ObservableListListener {
             reusableBinding = new ReusableBinding(bindings[0]);
         }
 
+        direct = directColumns(this.elements);
+
         if (addListeners) {
             managers = createManagers(getColBindings());
             for (ColumnDescriptionManager manager : managers) {
@@ -80,7 +108,230 @@ public abstract class ListBindingManager implements ObservableListListener {
         }
     }
     
+    /**
+     * Replaces the elements with the given list like {@code setElements},
+     * but reports only the differences between the current elements and the
+     * new ones, as identified by the given key. Per-row state is kept for
+     * the rows whose element is unchanged. Falls back to {@code setElements}
+     * with an {@code allChanged} notification when the lists are too
+     * different for the edits to be worth describing.
+     */
+    public void replaceElements(List<?> elements, ElementKey key) {
+        List<?> old = this.elements;
+        List<?> now = (elements == null) ? Collections.emptyList() : elements;
+
+        boolean hadManagers = managers != null;
+        boolean needsManagers = (now instanceof ObservableList)
+                ? !((ObservableList)now).supportsElementPropertyChanged()
+                : elements != null;
+
+        if (old == null || old.isEmpty() || now.isEmpty() || hadManagers != needsManagers) {
+            setElements(elements, true);
+            return;
+        }
+
+        int[] newToOld = diff(old, now, key);
+        if (newToOld == null) {
+            setElements(elements, true);
+            return;
+        }
+
+        if (old instanceof ObservableList) {
+            ((ObservableList)old).removeObservableListListener(this);
+        }
+
+        this.elements = now;
+        direct = directColumns(now);
+
+        if (now instanceof ObservableList) {
+            ((ObservableList)now).addObservableListListener(this);
+        }
+
+        beginReplay(old);
+        try {
+            replay(newToOld, old, now);
+        } finally {
+            replayOld = null;
+        }
+    }
+
+    private void replay(int[] newToOld, List<?> old, List<?> now) {
+        int n = old.size();
+        int m = now.size();
+        int i = 0;
+        int j = 0;
+        int changedStart = 0;
+        int changedLength = 0;
+
+        while (i < n || j < m) {
+            if (j < m && newToOld[j] == i) {
+                if (old.get(i) != now.get(j)) {
+                    // matched by key, but a different instance
+                    if (changedStart + changedLength != j) {
+                        replayChanged(changedStart, changedLength);
+                        changedStart = j;
+                        changedLength = 0;
+                    }
+                    replacedRows(j, 1);
+                    changedLength++;
+                }
+
+                i++;
+                j++;
+                continue;
+            }
+
+            int jEnd = j;
+            while (jEnd < m && newToOld[jEnd] == -1) {
+                jEnd++;
+            }
+
+            int iEnd = jEnd < m ? newToOld[jEnd] : n;
+            int removed = iEnd - i;
+            int added = jEnd - j;
+            int replaced = Math.min(removed, added);
+
+            if (replaced != 0) {
+                if (changedStart + changedLength != j) {
+                    replayChanged(changedStart, changedLength);
+                    changedStart = j;
+                    changedLength = 0;
+                }
+                replacedRows(j, replaced);
+                changedLength += replaced;
+            }
+
+            if (removed > replaced || added > replaced) {
+                replayChanged(changedStart, changedLength);
+                changedLength = 0;
+
+                if (removed > replaced) {
+                    replayRemoved(j + replaced, removed - replaced);
+                } else {
+                    replayAdded(j + replaced, added - replaced);
+                }
+            }
+
+            i = iEnd;
+            j = jEnd;
+        }
+
+        replayChanged(changedStart, changedLength);
+    }
+
+    private void replacedRows(int row, int length) {
+        if (managers != null) {
+            for (ColumnDescriptionManager manager : managers) {
+                for (int i = 0; i < length; i++) {
+                    manager.replaced(row + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts delivering a sequence of row events that turn the given old
+     * elements into the current ones, in order of row. Until
+     * {@code replayOld} is cleared, {@code size} and {@code getElement}
+     * describe the rows as of the last event, as a {@code RowSorter}
+     * checks each event against the row count.
+     */
+    private void beginReplay(List<?> old) {
+        replayOld = old;
+        replayBoundary = 0;
+        replayOldIndex = 0;
+    }
+
+    // Moves the boundary to the given row; the rows passed over are the
+    // same in the old elements and the current ones.
+    private void advance(int row) {
+        replayOldIndex += row - replayBoundary;
+        replayBoundary = row;
+    }
+
+    private void replayChanged(int row, int length) {
+        if (length != 0) {
+            advance(row);
+            replayBoundary += length;
+            replayOldIndex += length;
+            changed(row, length);
+        }
+    }
+
+    private void replayRemoved(int row, int length) {
+        advance(row);
+        replayOldIndex += length;
+
+        if (managers != null) {
+            for (ColumnDescriptionManager manager : managers) {
+                manager.remove(row, length);
+            }
+        }
+
+        removed(row, length);
+    }
+
+    private void replayAdded(int row, int length) {
+        advance(row);
+        replayBoundary += length;
+
+        if (managers != null) {
+            for (ColumnDescriptionManager manager : managers) {
+                manager.add(row, length);
+            }
+        }
+
+        added(row, length);
+    }
+
+    private static int[] diff(List<?> old, List<?> now, ElementKey key) {
+        Map<Object, Integer> ids = (key == ElementKey.IDENTITY)
+                ? new IdentityHashMap<Object, Integer>()
+                : new HashMap<Object, Integer>();
+
+        boolean unique = true;
+        int[] a = new int[old.size()];
+        int i = 0;
+        for (Object element : old) {
+            Object k = key.getKey(element);
+            Integer id = ids.get(k);
+            if (id == null) {
+                id = ids.size();
+                ids.put(k, id);
+            } else {
+                unique = false;
+            }
+            a[i++] = id;
+        }
+
+        int oldIds = ids.size();
+        int[] b = new int[now.size()];
+        boolean[] seen = unique ? new boolean[oldIds] : null;
+        int j = 0;
+        for (Object element : now) {
+            Object k = key.getKey(element);
+            Integer id = ids.get(k);
+            if (id == null) {
+                id = ids.size();
+                ids.put(k, id);
+            } else if (unique) {
+                if (id >= oldIds || seen[id]) {
+                    unique = false;
+                } else {
+                    seen[id] = true;
+                }
+            }
+            b[j++] = id;
+        }
+
+        return ListDiff.diff(a, b, unique, MAX_EDITS);
+    }
+
     public final Object getElement(int index) {
+        if (replayOld != null && index >= replayBoundary) {
+            return replayOld.get(index - replayBoundary + replayOldIndex);
+        }
+
         return elements.get(index);
     }
 
@@ -89,6 +340,10 @@ public abstract class ListBindingManager implements ObservableListListener {
     }
     
     public final int size() {
+        if (replayOld != null) {
+            return replayBoundary + replayOld.size() - replayOldIndex;
+        }
+
         return (elements == null) ? 0 : elements.size();
     }
     
@@ -100,11 +355,49 @@ public abstract class ListBindingManager implements ObservableListListener {
             }
         }
 
-        reusableBinding.setBaseAndSource(bindings[column], elements.get(row));
+        Object element = getElement(row);
+
+        if (direct != null && direct[column]) {
+            return element;
+        }
+
+        reusableBinding.setBaseAndSource(bindings[column], element);
         Binding.ValueResult result = reusableBinding.getSourceValueForTarget();
         return result.failed() ? null : result.getValue();
     }
 
+    /**
+     * Finds the columns of a primitive list whose value is the element
+     * itself, with no conversion on the way to the target. Returns
+     * {@code null} if the elements aren't a primitive list.
+     */
+    private boolean[] directColumns(List<?> elements) {
+        Class<?> type;
+        if (elements instanceof ObservableIntList) {
+            type = Integer.class;
+        } else if (elements instanceof ObservableLongList) {
+            type = Long.class;
+        } else if (elements instanceof ObservableDoubleList) {
+            type = Double.class;
+        } else {
+            return null;
+        }
+
+        boolean[] direct = new boolean[bindings.length];
+
+        for (int i = 0; i < bindings.length; i++) {
+            AbstractColumnBinding binding = bindings[i];
+            if (binding.getSourceProperty() instanceof ObjectProperty && binding.getConverter() == null) {
+                Class<?> writeType = binding.getTargetProperty().getWriteType(null);
+                // reusableBinding converts with the default registry
+                direct[i] = writeType.isAssignableFrom(type)
+                        && ConverterRegistry.getDefault().getConverter(type, writeType) == null;
+            }
+        }
+
+        return direct;
+    }
+
     public final int columnCount() {
         return bindings.length;
     }
@@ -150,17 +443,163 @@ public abstract class ListBindingManager implements ObservableListListener {
     public final void listElementPropertyChanged(ObservableList list, int index) {
         changed(index);
     }
+
+    /**
+     * Refreshes only the columns whose source property reads one of the
+     * changed properties, with one notification per column for the range.
+     * Falls back to {@code changed} when the changed properties, or those
+     * the columns read, aren't known.
+     */
+    public final void listElementsPropertyChanged(ObservableList list, int index, int length,
+                                                  Set<String> propertyNames) {
+        if (length == 0) {
+            return;
+        }
+
+        if (propertyNames == null || bindings.length == 0) {
+            changed(index, length);
+            return;
+        }
+
+        boolean[] affected = new boolean[bindings.length];
+        int count = 0;
+
+        for (int i = 0; i < bindings.length; i++) {
+            Set<String> read = bindings[i].getSourceProperty().getSourcePropertyNames();
+            if (read == null || !Collections.disjoint(read, propertyNames)) {
+                affected[i] = true;
+                count++;
+            }
+        }
+
+        if (count == bindings.length) {
+            changed(index, length);
+            return;
+        }
+
+        for (int i = 0; i < bindings.length; i++) {
+            if (affected[i]) {
+                valuesChanged(index, length, bindings[i].getColumn());
+            }
+        }
+    }
+
+    public final void listChanged(ObservableList list, List<ObservableListChange> changes) {
+        beginReplay(new PreviousElements(elements, changes));
+
+        try {
+            for (ObservableListChange change : changes) {
+                int index = change.getIndex();
+                int removed = change.getRemovedElements().size();
+                int added = change.getAddedCount();
+
+                if (removed == added) {
+                    replacedRows(index, added);
+                    replayChanged(index, added);
+                    continue;
+                }
+
+                if (removed != 0) {
+                    replayRemoved(index, removed);
+                }
+
+                if (added != 0) {
+                    replayAdded(index, added);
+                }
+            }
+        } finally {
+            replayOld = null;
+        }
+    }
     
     protected abstract void allChanged();
 
     protected abstract void valueChanged(int row, int column);
 
+    /**
+     * Called when a column has changed for a range of rows. This
+     * implementation calls {@link #valueChanged} for each row.
+     */
+    protected void valuesChanged(int row, int length, int column) {
+        for (int i = 0; i < length; i++) {
+            valueChanged(row + i, column);
+        }
+    }
+
     protected abstract void added(int index, int length);
 
     protected abstract void removed(int index, int length);
 
     protected abstract void changed(int row);
 
+    /**
+     * Called when a range of rows has changed. This implementation calls
+     * {@link #changed(int)} for each row.
+     */
+    protected void changed(int row, int length) {
+        for (int i = 0; i < length; i++) {
+            changed(row + i);
+        }
+    }
+
+    /**
+     * The contents of a list before a set of merged changes, computed from
+     * its current contents and the changes.
+     */
+    private static final class PreviousElements extends AbstractList<Object> {
+        private final List<?> elements;
+        private final List<ObservableListChange> changes;
+        // for each change, its index in the previous contents, and the
+        // offset from there to the current contents after it
+        private final int[] starts;
+        private final int[] offsets;
+        private final int size;
+
+        PreviousElements(List<?> elements, List<ObservableListChange> changes) {
+            this.elements = elements;
+            this.changes = changes;
+            starts = new int[changes.size()];
+            offsets = new int[changes.size()];
+
+            int offset = 0;
+            for (int c = 0; c < starts.length; c++) {
+                ObservableListChange change = changes.get(c);
+                starts[c] = change.getIndex() - offset;
+                offset += change.getAddedCount() - change.getRemovedElements().size();
+                offsets[c] = offset;
+            }
+
+            size = elements.size() - offset;
+        }
+
+        public Object get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            // the last change starting at or before index
+            int c = Arrays.binarySearch(starts, index);
+            if (c < 0) {
+                c = -c - 2;
+            }
+
+            if (c < 0) {
+                return elements.get(index);
+            }
+
+            List<?> removed = changes.get(c).getRemovedElements();
+            if (index < starts[c] + removed.size()) {
+                return removed.get(index - starts[c]);
+            }
+
+            return elements.get(index + offsets[c]);
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
     private final class ColumnDescriptionManager {
         private final AbstractColumnBinding columnBinding;
         private List<EntryWrapper> wrappers;
@@ -200,18 +639,17 @@ public abstract class ListBindingManager implements ObservableListListener {
         }
 
         private void add(int index, int length) {
-            for (int i = 0; i < length; i++) {
-                wrappers.add(index, null);
-            }
+            wrappers.addAll(index, Collections.<EntryWrapper>nCopies(length, null));
         }
 
         private void remove(int index, int length) {
-            while (length-- > 0) {
-                EntryWrapper wrapper = wrappers.remove(index);
+            List<EntryWrapper> range = wrappers.subList(index, index + length);
+            for (EntryWrapper wrapper : range) {
                 if (wrapper != null) {
                     wrapper.stopListening();
                 }
             }
+            range.clear();
         }
 
         private void replaced(int index) {
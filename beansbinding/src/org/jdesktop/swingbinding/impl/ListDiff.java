@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2007 Sun Microsystems, Inc. All rights reserved. Use is
+ * subject to license terms.
+ */
+
+package org.jdesktop.swingbinding.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes a longest common subsequence of two sequences of element ids,
+ * as the basis of an edit script between an old and a new list. The result
+ * maps each index in the new sequence to the index of the element it is
+ * matched with in the old sequence, or to {@code -1} for an inserted element;
+ * matched old indices are strictly increasing.
+ * <p>
+ * When no id occurs twice in either sequence, the common subsequence is the
+ * longest increasing subsequence of the old indices of the new elements,
+ * found in {@code O(n log n)}. Otherwise Myers' algorithm is used, which takes
+ * time proportional to the size of the lists times the number of edits, and
+ * gives up when the number of edits exceeds a limit.
+ */
+final class ListDiff {
+
+    private ListDiff() {}
+
+    /**
+     * Returns the matches for each new index, or {@code null} if the lists
+     * differ by more than {@code maxEdits} insertions and removals.
+     */
+    static int[] diff(int[] a, int[] b, boolean unique, int maxEdits) {
+        int n = a.length;
+        int m = b.length;
+        int[] newToOld = new int[m];
+        Arrays.fill(newToOld, -1);
+
+        // common prefix and suffix
+        int prefix = 0;
+        while (prefix < n && prefix < m && a[prefix] == b[prefix]) {
+            newToOld[prefix] = prefix;
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix && a[n - suffix - 1] == b[m - suffix - 1]) {
+            newToOld[m - suffix - 1] = n - suffix - 1;
+            suffix++;
+        }
+
+        int n1 = n - prefix - suffix;
+        int m1 = m - prefix - suffix;
+        if (n1 == 0 || m1 == 0) {
+            return newToOld;
+        }
+
+        boolean found = unique
+                ? increasing(a, b, prefix, n1, m1, newToOld)
+                : myers(a, b, prefix, n1, m1, maxEdits, newToOld);
+
+        return found ? newToOld : null;
+    }
+
+    private static boolean increasing(int[] a, int[] b, int offset, int n, int m, int[] newToOld) {
+        // ids are unique, so each one identifies at most one old index
+        int maxId = 0;
+        for (int i = 0; i < n; i++) {
+            maxId = Math.max(maxId, a[offset + i]);
+        }
+        for (int j = 0; j < m; j++) {
+            maxId = Math.max(maxId, b[offset + j]);
+        }
+
+        int[] oldIndex = new int[maxId + 1];
+        Arrays.fill(oldIndex, -1);
+        for (int i = 0; i < n; i++) {
+            oldIndex[a[offset + i]] = i;
+        }
+
+        // patience sorting: tails[l] is the new index ending the best
+        // increasing run of length l + 1, prev links each to its predecessor
+        int[] tails = new int[m];
+        int[] prev = new int[m];
+        int length = 0;
+
+        for (int j = 0; j < m; j++) {
+            int i = oldIndex[b[offset + j]];
+            if (i == -1) {
+                continue;
+            }
+
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (oldIndex[b[offset + tails[mid]]] < i) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            prev[j] = low == 0 ? -1 : tails[low - 1];
+            tails[low] = j;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        for (int j = length == 0 ? -1 : tails[length - 1]; j != -1; j = prev[j]) {
+            newToOld[offset + j] = offset + oldIndex[b[offset + j]];
+        }
+
+        return true;
+    }
+
+    private static boolean myers(int[] a, int[] b, int offset, int n, int m, int maxEdits, int[] newToOld) {
+        int max = Math.min(n + m, maxEdits);
+        int[] v = new int[2 * max + 3];
+        int zero = max + 1;
+        List<int[]> trace = new ArrayList<int[]>();
+        int edits = -1;
+
+        search:
+        for (int d = 0; d <= max; d++) {
+            // the furthest reaching paths before this step, for k in [-d, d]
+            int[] snapshot = new int[2 * d + 1];
+            System.arraycopy(v, zero - d, snapshot, 0, 2 * d + 1);
+            trace.add(snapshot);
+
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[zero + k - 1] < v[zero + k + 1])) {
+                    x = v[zero + k + 1];
+                } else {
+                    x = v[zero + k - 1] + 1;
+                }
+
+                int y = x - k;
+                while (x < n && y < m && a[offset + x] == b[offset + y]) {
+                    x++;
+                    y++;
+                }
+
+                v[zero + k] = x;
+
+                if (x >= n && y >= m) {
+                    edits = d;
+                    break search;
+                }
+            }
+        }
+
+        if (edits == -1) {
+            return false;
+        }
+
+        int x = n;
+        int y = m;
+
+        for (int d = edits; d > 0; d--) {
+            int[] snapshot = trace.get(d);
+            int k = x - y;
+            int prevK;
+            if (k == -d || (k != d && snapshot[k - 1 + d] < snapshot[k + 1 + d])) {
+                prevK = k + 1;
+            } else {
+                prevK = k - 1;
+            }
+
+            int prevX = snapshot[prevK + d];
+            int prevY = prevX - prevK;
+            int startX = prevK == k + 1 ? prevX : prevX + 1;
+            int startY = startX - k;
+
+            while (x > startX && y > startY) {
+                x--;
+                y--;
+                newToOld[offset + y] = offset + x;
+            }
+
+            x = prevX;
+            y = prevY;
+        }
+
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+            newToOld[offset + y] = offset + x;
+        }
+
+        return true;
+    }
+}
@@ -3,6 +3,8 @@ package org.jdesktop.beansbinding;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
 import junit.framework.TestCase;
 
 /*
@@ -550,6 +552,117 @@ public class BindingTest extends TestCase {
                 target, targetProp);
     }
     
+    public void testConverterRegistryInSeveralGroups() {
+        TestBean source = new TestBean();
+        source.setObjProperty(new Mystery());
+        Binding binding = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_ONCE,
+                source, BeanProperty.create(OBJ_PROP_NAME),
+                new TestBean(), BeanProperty.create(PROP_NAME));
+
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.register(Mystery.class, String.class, new Converter<Mystery, String>() {
+            public String convertForward(Mystery value) {
+                return "mystery";
+            }
+
+            public Mystery convertReverse(String value) {
+                return new Mystery();
+            }
+        });
+
+        BindingGroup first = new BindingGroup();
+        first.setConverterRegistry(registry);
+        BindingGroup second = new BindingGroup();
+
+        first.addBinding(binding);
+        second.addBinding(binding);
+        assertEquals("mystery", binding.getSourceValueForTarget().getValue());
+
+        // leaving one group doesn't detach the binding from the other
+        second.removeBinding(binding);
+        assertEquals("mystery", binding.getSourceValueForTarget().getValue());
+
+        first.removeBinding(binding);
+        try {
+            binding.getSourceValueForTarget();
+            fail();
+        } catch (ClassCastException cce) {
+        }
+    }
+
+    public void testGroupKeepsInsertionOrder() {
+        final List<Binding> bound = new ArrayList<Binding>();
+        BindingGroup group = new BindingGroup();
+        group.addBindingListener(new AbstractBindingListener() {
+            public void bindingBecameBound(Binding binding) {
+                bound.add(binding);
+            }
+        });
+
+        List<Binding> added = new ArrayList<Binding>();
+        for (int i = 0; i < 50; i++) {
+            Binding binding = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_ONCE,
+                    new TestBean(), BeanProperty.create(PROP_NAME),
+                    new TestBean(), BeanProperty.create(PROP_NAME));
+            group.addBinding(binding);
+            added.add(binding);
+        }
+
+        group.removeBinding(added.remove(10));
+        assertEquals(added, group.getBindings());
+
+        group.bind();
+        assertEquals(added, bound);
+
+        added.get(3).unbind();
+        assertEquals(added, group.getBindings());
+    }
+
+    public void testGroupMembershipChangesDuringBind() {
+        final List<Binding> bound = new ArrayList<Binding>();
+        final BindingGroup group = new BindingGroup();
+        final Binding first = createReadOnceBinding();
+        final Binding second = createReadOnceBinding();
+        final Binding third = createReadOnceBinding();
+        group.addBinding(first);
+        group.addBinding(second);
+
+        group.addBindingListener(new AbstractBindingListener() {
+            public void bindingBecameBound(Binding binding) {
+                bound.add(binding);
+                if (binding == first && bound.size() == 1) {
+                    group.removeBinding(second);
+                    group.addBinding(third);
+                }
+            }
+        });
+
+        group.bind();
+        assertEquals(1, bound.size());
+        assertFalse(second.isBound());
+        assertFalse(third.isBound());
+
+        group.bind();
+        assertEquals(2, bound.size());
+        assertSame(third, bound.get(1));
+
+        group.unbind();
+        assertFalse(first.isBound());
+        assertFalse(third.isBound());
+
+        group.addBinding(second);
+        group.bind();
+        assertTrue(first.isBound());
+        assertTrue(second.isBound());
+        assertTrue(third.isBound());
+    }
+
+    private static Binding createReadOnceBinding() {
+        return Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_ONCE,
+                new TestBean(), BeanProperty.create(PROP_NAME),
+                new TestBean(), BeanProperty.create(PROP_NAME));
+    }
+
     public static class TestBean {
         String value = PROP_VALUE;
         Object objVal = null;
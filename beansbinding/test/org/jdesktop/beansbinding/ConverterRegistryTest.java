@@ -0,0 +1,67 @@
+package org.jdesktop.beansbinding;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import junit.framework.TestCase;
+
+public class ConverterRegistryTest extends TestCase {
+
+    public static class Source {
+    }
+
+    public static class Target {
+    }
+
+    private static final Converter<Source, Target> CONVERTER = new Converter<Source, Target>() {
+        public Target convertForward(Source value) {
+            return new Target();
+        }
+
+        public Source convertReverse(Target value) {
+            return new Source();
+        }
+    };
+
+    public void testRegistrationInvalidatesCachedLookups() {
+        ConverterRegistry parent = new ConverterRegistry();
+        ConverterRegistry registry = new ConverterRegistry(parent);
+        assertNull(registry.getConverter(Source.class, Target.class));
+
+        parent.register(Source.class, Target.class, CONVERTER);
+        assertSame(CONVERTER, registry.getConverter(Source.class, Target.class));
+        assertNotNull(registry.getConverter(Target.class, Source.class));
+
+        parent.unregister(Source.class, Target.class);
+        assertNull(registry.getConverter(Source.class, Target.class));
+        assertNull(registry.getConverter(Target.class, Source.class));
+    }
+
+    public void testConcurrentLookupsDoNotOutliveRegistration() throws InterruptedException {
+        final ConverterRegistry registry = new ConverterRegistry();
+
+        for (int round = 0; round < 200; round++) {
+            final AtomicBoolean stop = new AtomicBoolean();
+            Thread[] readers = new Thread[3];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new Thread() {
+                    public void run() {
+                        while (!stop.get()) {
+                            registry.getConverter(Source.class, Target.class);
+                        }
+                    }
+                };
+                readers[i].start();
+            }
+
+            registry.register(Source.class, Target.class, CONVERTER);
+            Thread.yield();
+            registry.unregister(Source.class, Target.class);
+
+            stop.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+
+            assertNull(registry.getConverter(Source.class, Target.class));
+        }
+    }
+}
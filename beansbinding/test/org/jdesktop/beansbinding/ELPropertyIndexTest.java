@@ -0,0 +1,189 @@
+package org.jdesktop.beansbinding;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import junit.framework.TestCase;
+import org.jdesktop.observablecollections.ObservableCollections;
+import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListListener;
+
+public class ELPropertyIndexTest extends TestCase {
+
+    public static class Holder {
+        private List<String> items;
+        private String[] array;
+        private Character key;
+
+        public List<String> getItems() {
+            return items;
+        }
+
+        public String[] getArray() {
+            return array;
+        }
+
+        public Character getKey() {
+            return key;
+        }
+    }
+
+    private static class CountingListener implements PropertyStateListener {
+        int count;
+        PropertyStateEvent last;
+
+        public void propertyStateChanged(PropertyStateEvent pse) {
+            count++;
+            last = pse;
+        }
+    }
+
+    // An observable list that counts the listeners added to it.
+    private static class CountingList extends AbstractList<String> implements ObservableList<String> {
+        private final ObservableList<String> delegate;
+        private final Map<ObservableListListener, ObservableListListener> forwarders =
+                new IdentityHashMap<ObservableListListener, ObservableListListener>();
+        int listeners;
+
+        CountingList(String... elements) {
+            delegate = ObservableCollections.observableList(
+                    new ArrayList<String>(Arrays.asList(elements)));
+        }
+
+        public String get(int index) {
+            return delegate.get(index);
+        }
+
+        public int size() {
+            return delegate.size();
+        }
+
+        public String set(int index, String element) {
+            return delegate.set(index, element);
+        }
+
+        public void addObservableListListener(final ObservableListListener listener) {
+            listeners++;
+            ObservableListListener forwarder = new ObservableListListener() {
+                public void listElementsAdded(ObservableList list, int index, int length) {
+                    listener.listElementsAdded(CountingList.this, index, length);
+                }
+
+                public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+                    listener.listElementsRemoved(CountingList.this, index, oldElements);
+                }
+
+                public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+                    listener.listElementReplaced(CountingList.this, index, oldElement);
+                }
+
+                public void listElementPropertyChanged(ObservableList list, int index) {
+                    listener.listElementPropertyChanged(CountingList.this, index);
+                }
+            };
+            forwarders.put(listener, forwarder);
+            delegate.addObservableListListener(forwarder);
+        }
+
+        public void removeObservableListListener(ObservableListListener listener) {
+            listeners--;
+            delegate.removeObservableListListener(forwarders.remove(listener));
+        }
+
+        public boolean supportsElementPropertyChanged() {
+            return false;
+        }
+    }
+
+    public void testIndexedListDependency() {
+        Holder holder = new Holder();
+        ObservableList<String> items = ObservableCollections.observableList(
+                new ArrayList<String>(Arrays.asList("a", "b", "c")));
+        holder.items = items;
+
+        ELProperty<Holder, Object> p = ELProperty.create("${items[1]}");
+        assertEquals("b", p.getValue(holder));
+
+        CountingListener l = new CountingListener();
+        p.addPropertyStateListener(holder, l);
+
+        items.set(0, "x");
+        assertEquals(0, l.count);
+
+        items.set(1, "y");
+        assertEquals(1, l.count);
+        assertEquals("y", l.last.getNewValue());
+
+        items.remove(0);
+        assertEquals(2, l.count);
+        assertEquals("c", p.getValue(holder));
+
+        items.add("z");
+        assertEquals(2, l.count);
+
+        p.removePropertyStateListener(holder, l);
+    }
+
+    public void testArrayAndListBeanProperties() {
+        Holder holder = new Holder();
+        holder.array = new String[] {"a", "b"};
+        holder.items = new ArrayList<String>();
+
+        assertEquals("b", ELProperty.create("${array[1]}").getValue(holder));
+        assertEquals("ArrayList", ELProperty.create("${items.class.simpleName}").getValue(holder));
+    }
+
+    public void testOneListenerPerList() {
+        Holder holder = new Holder();
+        CountingList items = new CountingList("a", "b", "c");
+        holder.items = items;
+
+        ELProperty<Holder, Object> p = ELProperty.create("${items[0] == items[2]}");
+        CountingListener l = new CountingListener();
+        p.addPropertyStateListener(holder, l);
+        assertEquals(1, items.listeners);
+
+        items.set(1, "x");
+        assertEquals(0, l.count);
+
+        items.set(2, "a");
+        assertEquals(1, l.count);
+        assertEquals(Boolean.TRUE, l.last.getNewValue());
+        assertEquals(1, items.listeners);
+
+        items.set(0, "b");
+        assertEquals(2, l.count);
+        assertEquals(1, items.listeners);
+
+        p.removePropertyStateListener(holder, l);
+        assertEquals(0, items.listeners);
+    }
+
+    public void testCharacterIndex() {
+        Holder holder = new Holder();
+        ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+        for (int i = 0; i < 'b' + 1; i++) {
+            items.add("" + i);
+        }
+        holder.items = items;
+        holder.key = Character.valueOf('b');
+
+        ELProperty<Holder, Object> p = ELProperty.create("${items[key]}");
+        assertEquals("" + (int)'b', p.getValue(holder));
+
+        CountingListener l = new CountingListener();
+        p.addPropertyStateListener(holder, l);
+
+        items.set('a', "x");
+        assertEquals(0, l.count);
+
+        items.set('b', "y");
+        assertEquals(1, l.count);
+        assertEquals("y", l.last.getNewValue());
+
+        p.removePropertyStateListener(holder, l);
+    }
+}
@@ -0,0 +1,130 @@
+package org.jdesktop.beansbinding;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import junit.framework.TestCase;
+
+public class PropagationTest extends TestCase {
+
+    public static class Bean {
+        private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+        private String value = "";
+        int sets;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            sets++;
+            String old = this.value;
+            this.value = value;
+            support.firePropertyChange("value", old, value);
+        }
+
+        public void addPropertyChangeListener(PropertyChangeListener listener) {
+            support.addPropertyChangeListener(listener);
+        }
+
+        public void removePropertyChangeListener(PropertyChangeListener listener) {
+            support.removePropertyChangeListener(listener);
+        }
+    }
+
+    private final List<Runnable> flushes = new ArrayList<Runnable>();
+
+    private final Executor queue = new Executor() {
+        public void execute(Runnable command) {
+            flushes.add(command);
+        }
+    };
+
+    private void runFlushes() {
+        while (!flushes.isEmpty()) {
+            flushes.remove(0).run();
+        }
+    }
+
+    private static AutoBinding<Bean, String, Bean, String> bind(Bean source, Bean target,
+                                                                 BindingScheduler scheduler) {
+        AutoBinding<Bean, String, Bean, String> binding = Bindings.createAutoBinding(
+                AutoBinding.UpdateStrategy.READ, source, BeanProperty.<Bean, String>create("value"),
+                target, BeanProperty.<Bean, String>create("value"));
+        binding.setScheduler(scheduler);
+        binding.bind();
+        return binding;
+    }
+
+    public void testProducerFoundAfterItsConsumerRunsFirst() {
+        Bean x = new Bean();
+        Bean y = new Bean();
+        Bean z = new Bean();
+        BindingScheduler scheduler = BindingScheduler.create(queue);
+
+        // not in a group, so the wave only learns of the producer when it
+        // is flushed, after the consumer has been queued
+        bind(y, z, scheduler);
+        bind(x, y, scheduler);
+        runFlushes();
+
+        y.setValue("y");
+        x.setValue("x");
+        z.sets = 0;
+        runFlushes();
+
+        assertEquals("x", z.getValue());
+        assertEquals(1, z.sets);
+    }
+
+    private static Bean failing() {
+        return new Bean() {
+            public void setValue(String value) {
+                if ("boom".equals(value)) {
+                    throw new IllegalStateException(value);
+                }
+                super.setValue(value);
+            }
+        };
+    }
+
+    public void testFailuresAreReportedAndOthersStillSync() {
+        final List<Throwable> reported = new ArrayList<Throwable>();
+        Thread current = Thread.currentThread();
+        Thread.UncaughtExceptionHandler old = current.getUncaughtExceptionHandler();
+        current.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            public void uncaughtException(Thread t, Throwable e) {
+                reported.add(e);
+            }
+        });
+
+        try {
+            Bean a = new Bean();
+            Bean b = new Bean();
+            BindingGroup group = new BindingGroup();
+
+            // the first failure ends the wave, and the second happens when
+            // the binding is handed back
+            for (Bean target : new Bean[] {failing(), failing(), b}) {
+                group.addBinding(Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ,
+                        a, BeanProperty.create("value"), target, BeanProperty.create("value")));
+            }
+            group.bind();
+
+            group.beginBatch();
+            a.setValue("boom");
+            try {
+                group.endBatch();
+                fail();
+            } catch (RuntimeException re) {
+            }
+
+            assertEquals("boom", b.getValue());
+            assertEquals(1, reported.size());
+        } finally {
+            current.setUncaughtExceptionHandler(old);
+        }
+    }
+}
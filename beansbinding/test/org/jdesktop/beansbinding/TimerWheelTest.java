@@ -0,0 +1,82 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JLabel;
+import junit.framework.TestCase;
+import org.jdesktop.swingbinding.SwingBindings;
+
+public class TimerWheelTest extends TestCase {
+
+    private static final Executor DIRECT = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static Runnable failing(final CountDownLatch ran) {
+        return new Runnable() {
+            public void run() {
+                ran.countDown();
+                throw new IllegalStateException("failing task");
+            }
+        };
+    }
+
+    private static Runnable counting(final CountDownLatch ran) {
+        return new Runnable() {
+            public void run() {
+                ran.countDown();
+            }
+        };
+    }
+
+    public void testFailingTaskDoesNotStopTheWheel() throws InterruptedException {
+        final List<Throwable> reported = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread.UncaughtExceptionHandler old = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            public void uncaughtException(Thread t, Throwable e) {
+                reported.add(e);
+            }
+        });
+
+        try {
+            TimerWheel wheel = new TimerWheel(5, DIRECT);
+
+            // expiring in the same tick as the failing one
+            CountDownLatch first = new CountDownLatch(3);
+            wheel.schedule(counting(first), 20);
+            wheel.schedule(failing(first), 20);
+            wheel.schedule(counting(first), 20);
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch second = new CountDownLatch(1);
+            wheel.schedule(counting(second), 20);
+            assertTrue(second.await(5, TimeUnit.SECONDS));
+            assertEquals(1, reported.size());
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(old);
+        }
+    }
+
+    public void testCancelledTaskDoesNotRun() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel(5, DIRECT);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+
+        wheel.schedule(counting(cancelled), 10).cancel();
+        wheel.schedule(counting(ran), 30);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(1, cancelled.getCount());
+    }
+
+    public void testComponentTargetsUseTheEventQueueWheel() {
+        assertSame(SwingBindings.getEventQueueTimerWheel(), TimerWheel.getDefault(new JLabel()));
+        assertSame(TimerWheel.getDefault(), TimerWheel.getDefault("text"));
+        assertSame(TimerWheel.getDefault(), TimerWheel.getDefault(null));
+    }
+}
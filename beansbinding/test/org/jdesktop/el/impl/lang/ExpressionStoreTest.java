@@ -0,0 +1,81 @@
+package org.jdesktop.el.impl.lang;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+import org.jdesktop.el.impl.parser.Node;
+
+public class ExpressionStoreTest extends TestCase {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "${firstName}",
+            "${mother.firstName} ${mother.lastName}",
+            "${a.b['c\\\\d'] + 2 * -3.5 > 1 ? 'x' : null}",
+            "${empty list and not flag}",
+            "literal text",
+            "${firstName}");
+
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionStore.write(EXPRESSIONS, out);
+
+        ExpressionStore store = ExpressionStore.read(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(5, store.getExpressions().size());
+
+        for (String expr : EXPRESSIONS) {
+            assertEquals(expr, dump(ExpressionBuilder.createNode(expr)), dump(store.getNode(expr)));
+        }
+
+        assertNull(store.getNode("${notInStore}"));
+    }
+
+    public void testPopulate() throws Exception {
+        List<String> expressions = Arrays.asList(
+                "${populated.first}",
+                "${populated.second + 1}",
+                "${populated.third} and text");
+
+        // writing parses, and caches, every expression
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionStore.write(expressions, out);
+        ExpressionStore store = ExpressionStore.read(ByteBuffer.wrap(out.toByteArray()));
+
+        Node[] parsed = new Node[expressions.size()];
+        for (int i = 0; i < parsed.length; i++) {
+            parsed[i] = ExpressionBuilder.createNode(expressions.get(i));
+        }
+
+        assertEquals(3, store.populate());
+
+        for (int i = 0; i < parsed.length; i++) {
+            String expr = expressions.get(i);
+            Node n = ExpressionBuilder.createNode(expr);
+            assertNotSame(expr, parsed[i], n);
+            assertSame(expr, n, ExpressionBuilder.createNode(expr));
+            assertEquals(expr, dump(parsed[i]), dump(n));
+        }
+    }
+
+    public void testPrecompiledIsNotParsed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionStore.write(Arrays.asList("${precompiled.value}"), out);
+        Node n = ExpressionStore.read(ByteBuffer.wrap(out.toByteArray()))
+                .getNode("${precompiled.value}");
+
+        // an expression that doesn't parse, so creating it must not parse it
+        String expr = "${precompiled.value +}";
+        ExpressionBuilder.putPrecompiled(expr, n);
+        assertSame(n, ExpressionBuilder.createNode(expr));
+    }
+
+    private static String dump(Node node) {
+        StringBuilder sb = new StringBuilder(node.toString());
+        sb.append('(');
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            sb.append(dump(node.jjtGetChild(i))).append(' ');
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,165 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class ConcurrentListTest extends TestCase {
+    private QueueExecutor executor;
+    private BulkObservableList<Integer> list;
+
+    protected void setUp() {
+        executor = new QueueExecutor();
+        list = ObservableCollections.concurrentList(executor);
+    }
+
+    public void testReadsTheLastDelivery() {
+        ListMirror merged = new ListMirror(list, true);
+        ListMirror plain = new ListMirror(list, false);
+
+        list.add(1);
+        list.add(2);
+        list.add(0, 3);
+        assertEquals(0, list.size());
+        assertEquals(1, executor.size());
+
+        assertEquals(1, executor.runAll());
+        assertEquals(Arrays.asList(3, 1, 2), list);
+        assertEquals(1, merged.notifications);
+        assertEquals(1, plain.notifications);
+        merged.check();
+        plain.check();
+
+        list.set(1, 4);
+        list.remove(0);
+        assertEquals(Arrays.asList(3, 1, 2), list);
+        executor.runAll();
+        assertEquals(Arrays.asList(4, 2), list);
+        merged.check();
+        plain.check();
+    }
+
+    public void testChangeHoldsBackDelivery() {
+        ListMirror merged = new ListMirror(list, true);
+
+        list.beginChange();
+        list.add(1);
+        list.add(2);
+        assertEquals(0, executor.size());
+        list.endChange();
+        assertEquals(1, executor.size());
+
+        // a change begun after the delivery was requested holds it back too
+        list.beginChange();
+        list.add(3);
+        executor.runAll();
+        assertEquals(0, list.size());
+        list.endChange();
+        executor.runAll();
+
+        assertEquals(Arrays.asList(1, 2, 3), list);
+        assertEquals(1, merged.notifications);
+        merged.check();
+
+        try {
+            list.endChange();
+            fail();
+        } catch (IllegalStateException ise) {
+        }
+    }
+
+    public void testRandomChanges() {
+        Random random = new Random(11);
+        List<Integer> latest = new ArrayList<Integer>();
+        ListMirror merged = new ListMirror(list, true);
+        ListMirror plain = new ListMirror(list, false);
+
+        for (int step = 0; step < 2000; step++) {
+            int size = latest.size();
+            int value = random.nextInt(10);
+
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    int index = random.nextInt(size + 1);
+                    list.add(index, value);
+                    latest.add(index, value);
+                    break;
+                case 2:
+                    if (size > 0) {
+                        index = random.nextInt(size);
+                        assertEquals(latest.remove(index), list.remove(index));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        index = random.nextInt(size);
+                        assertEquals(latest.set(index, value), list.set(index, value));
+                    }
+                    break;
+                default:
+                    if (size > 0) {
+                        latest.remove(random.nextInt(size));
+                    }
+                    list.setAll(latest);
+                    break;
+            }
+
+            if (random.nextInt(4) == 0) {
+                executor.runAll();
+                assertEquals(latest, list);
+                merged.check();
+                plain.check();
+            }
+        }
+    }
+
+    public void testConcurrentWriters() throws InterruptedException {
+        final int count = 2000;
+        ListMirror merged = new ListMirror(list, true);
+        Thread[] writers = new Thread[4];
+
+        for (int t = 0; t < writers.length; t++) {
+            final int base = t * count;
+            writers[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        list.add(base + i);
+                        if (i % 2 == 1) {
+                            list.remove(Integer.valueOf(base + i - 1));
+                        }
+                    }
+                }
+            };
+            writers[t].start();
+        }
+
+        boolean alive = true;
+        while (alive) {
+            executor.runAll();
+            merged.check();
+
+            alive = false;
+            for (Thread writer : writers) {
+                alive |= writer.isAlive();
+            }
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        executor.runAll();
+        merged.check();
+
+        // each writer's remaining values, in the order it added them
+        assertEquals(writers.length * count / 2, list.size());
+        int[] next = new int[writers.length];
+        for (int value : list) {
+            int t = value / count;
+            assertEquals(t * count + next[t] * 2 + 1, value);
+            next[t]++;
+        }
+    }
+}
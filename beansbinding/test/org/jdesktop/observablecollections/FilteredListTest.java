@@ -0,0 +1,99 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class FilteredListTest extends TestCase {
+
+    private static final ElementFilter<Integer> EVEN = new ElementFilter<Integer>() {
+        public boolean accept(Integer element) {
+            return element.intValue() % 2 == 0;
+        }
+    };
+
+    private static final ElementFilter<Item> EVEN_ITEM = new ElementFilter<Item>() {
+        public boolean accept(Item element) {
+            return element.getValue() % 2 == 0;
+        }
+    };
+
+    private static List<Integer> even(List<Integer> list) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (Integer i : list) {
+            if (i.intValue() % 2 == 0) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    public void testInitialContents() {
+        ObservableList<Integer> source = ObservableCollections.observableList(
+                new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 6, 7)));
+        ObservableList<Integer> view = ObservableCollections.filtered(source, EVEN);
+        assertEquals(Arrays.asList(2, 4, 6), view);
+    }
+
+    public void testFollowsSource() {
+        Random random = new Random(1);
+
+        for (int round = 0; round < 2; round++) {
+            BulkObservableList<Integer> source = (BulkObservableList<Integer>)
+                    ObservableCollections.observableList(new ArrayList<Integer>());
+            ObservableList<Integer> view = ObservableCollections.filtered(source, EVEN);
+            ListMirror mirror = new ListMirror(view, round == 1);
+
+            for (int step = 0; step < 500; step++) {
+                boolean change = random.nextInt(4) == 0;
+                if (change) {
+                    source.beginChange();
+                }
+
+                for (int op = change ? 3 : 1; op > 0; op--) {
+                    ListOps.apply(source, random);
+                }
+
+                if (change) {
+                    source.endChange();
+                }
+
+                assertEquals(even(source), view);
+                mirror.check();
+            }
+        }
+    }
+
+    public void testPropertyChangeRefilters() {
+        Item one = new Item(1);
+        Item two = new Item(2);
+        ObservableList<Item> source = ObservableCollections.observableBeanList(
+                new ArrayList<Item>(Arrays.asList(one, two)));
+        ObservableList<Item> view = ObservableCollections.filtered(source, EVEN_ITEM);
+        ListMirror mirror = new ListMirror(view, false);
+        assertEquals(Arrays.asList(two), view);
+
+        one.setValue(4);
+        assertEquals(Arrays.asList(one, two), view);
+        two.setValue(3);
+        assertEquals(Arrays.asList(one), view);
+        one.setValue(8);
+        assertEquals(Arrays.asList(one), view);
+        mirror.check();
+    }
+
+    public void testDispose() {
+        ObservableList<Integer> source = ObservableCollections.observableList(
+                new ArrayList<Integer>(Arrays.asList(1, 2)));
+        ObservableListView<Integer> view = ObservableCollections.filtered(source, EVEN);
+        ListMirror mirror = new ListMirror(view, false);
+
+        view.dispose();
+        view.dispose();
+        source.add(4);
+        assertEquals(0, mirror.notifications);
+        assertEquals(Arrays.asList(2), view);
+    }
+}
@@ -0,0 +1,87 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class IndexTreeTest extends TestCase {
+
+    private static void check(IndexTree tree, List<IndexTree.Node> nodes) {
+        assertEquals(nodes.size(), tree.size());
+
+        int marked = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            IndexTree.Node node = nodes.get(i);
+            assertSame(node, tree.get(i));
+            assertEquals(i, tree.indexOf(node));
+            assertEquals(marked, tree.markedBefore(node));
+            assertEquals(marked, tree.markedBefore(i));
+
+            if (node.isMarked()) {
+                assertSame(node, tree.getMarked(marked));
+                marked++;
+            }
+        }
+
+        assertEquals(marked, tree.markedSize());
+        assertEquals(marked, tree.markedBefore(nodes.size()));
+    }
+
+    public void testRandomOperations() {
+        Random random = new Random(31);
+        IndexTree tree = new IndexTree();
+        List<IndexTree.Node> nodes = new ArrayList<IndexTree.Node>();
+
+        for (int step = 0; step < 3000; step++) {
+            int size = nodes.size();
+
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    int index = random.nextInt(size + 1);
+                    nodes.add(index, tree.insert(index, random.nextBoolean()));
+                    break;
+                case 2:
+                    if (size > 0) {
+                        tree.remove(nodes.remove(random.nextInt(size)));
+                    }
+                    break;
+                default:
+                    if (size > 0) {
+                        tree.setMarked(nodes.get(random.nextInt(size)), random.nextBoolean());
+                    }
+                    break;
+            }
+
+            if (step % 50 == 0) {
+                check(tree, nodes);
+            }
+        }
+
+        check(tree, nodes);
+    }
+
+    public void testIndexOutOfBounds() {
+        IndexTree tree = new IndexTree();
+        tree.insert(0, false);
+
+        try {
+            tree.get(1);
+            fail();
+        } catch (IndexOutOfBoundsException ioobe) {
+        }
+
+        try {
+            tree.getMarked(0);
+            fail();
+        } catch (IndexOutOfBoundsException ioobe) {
+        }
+
+        try {
+            tree.insert(2, true);
+            fail();
+        } catch (IndexOutOfBoundsException ioobe) {
+        }
+    }
+}
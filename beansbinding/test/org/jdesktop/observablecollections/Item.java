@@ -0,0 +1,38 @@
+package org.jdesktop.observablecollections;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * A bean with a bound {@code value} property, for the list tests.
+ */
+public class Item {
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private int value;
+
+    public Item(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        int old = this.value;
+        this.value = value;
+        support.firePropertyChange("value", old, value);
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        support.removePropertyChangeListener(listener);
+    }
+
+    public String toString() {
+        return "Item" + value;
+    }
+}
@@ -0,0 +1,138 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class ListChangeRecorderTest extends TestCase {
+
+    private static List<Object> list(Object... elements) {
+        return Arrays.asList(elements);
+    }
+
+    private static void assertChange(ObservableListChange change, int index, List<?> removed, int added) {
+        assertEquals(index, change.getIndex());
+        assertEquals(removed, change.getRemovedElements());
+        assertEquals(added, change.getAddedCount());
+    }
+
+    public void testMergesOverlappingChanges() {
+        ListChangeRecorder recorder = new ListChangeRecorder();
+        // [a b c d e] -> [a x y b c d e] -> [a x c d e] -> [a x c z e]
+        recorder.added(1, 2);
+        recorder.removed(2, list("y", "b"));
+        recorder.replaced(3, "d");
+
+        List<ObservableListChange> changes = recorder.takeChanges();
+        assertEquals(2, changes.size());
+        assertChange(changes.get(0), 1, list("b"), 1);
+        assertChange(changes.get(1), 3, list("d"), 1);
+        assertTrue(recorder.isEmpty());
+    }
+
+    public void testRemovingAddedElementsCancelsOut() {
+        ListChangeRecorder recorder = new ListChangeRecorder();
+        recorder.added(3, 2);
+        recorder.replaced(4, "added");
+        recorder.removed(3, list("added", "added"));
+        assertTrue(recorder.isEmpty());
+    }
+
+    public void testRemovalSpanningChanges() {
+        ListChangeRecorder recorder = new ListChangeRecorder();
+        // [a b c d e f] -> [a X b c d e f] -> [a X b c Y e f] -> [a f]
+        recorder.added(1, 1);
+        recorder.replaced(4, "d");
+        recorder.removed(1, list("X", "b", "c", "Y", "e"));
+
+        List<ObservableListChange> changes = recorder.takeChanges();
+        assertEquals(1, changes.size());
+        assertChange(changes.get(0), 1, list("b", "c", "d", "e"), 0);
+    }
+
+    public void testChangesAreDeliveredOnce() {
+        BulkObservableList<String> list = (BulkObservableList<String>)ObservableCollections.observableList(
+                new ArrayList<String>(Arrays.asList("a", "b", "c")));
+        ListMirror merged = new ListMirror(list, true);
+        ListMirror plain = new ListMirror(list, false);
+
+        list.beginChange();
+        list.beginChange();
+        list.add("d");
+        list.remove("a");
+        list.endChange();
+        list.set(0, "x");
+        assertEquals(0, merged.notifications);
+        assertEquals(0, plain.notifications);
+        list.endChange();
+
+        assertEquals(1, merged.notifications);
+        assertEquals(3, plain.notifications);
+        merged.check();
+        plain.check();
+
+        try {
+            list.endChange();
+            fail();
+        } catch (IllegalStateException ise) {
+        }
+    }
+
+    public void testPropertyChangeWithinChangeIsReplacement() {
+        Item item = new Item(1);
+        ObservableCollections.ObservableListHelper<Item> helper = ObservableCollections.observableListHelper(
+                new ArrayList<Item>(Collections.singletonList(item)));
+        BulkObservableList<Item> list = (BulkObservableList<Item>)helper.getObservableList();
+        final List<ObservableListChange> delivered = new ArrayList<ObservableListChange>();
+        new ListMirror(list, true) {
+            public void listChanged(ObservableList l, List<ObservableListChange> changes) {
+                delivered.addAll(changes);
+            }
+        };
+
+        list.beginChange();
+        helper.fireElementChanged(0);
+        list.endChange();
+
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0).isReplacement());
+        assertSame(item, delivered.get(0).getRemovedElements().get(0));
+    }
+
+    public void testRandomChangesAreDisjointAndComplete() {
+        Random random = new Random(4);
+        BulkObservableList<Integer> list = (BulkObservableList<Integer>)ObservableCollections.observableList(
+                new ArrayList<Integer>());
+        ListMirror merged = new ListMirror(list, true);
+        ListMirror plain = new ListMirror(list, false);
+        final List<List<ObservableListChange>> deliveries = new ArrayList<List<ObservableListChange>>();
+        new ListMirror(list, true) {
+            public void listChanged(ObservableList l, List<ObservableListChange> changes) {
+                deliveries.add(changes);
+            }
+        };
+
+        for (int step = 0; step < 500; step++) {
+            list.beginChange();
+            for (int op = random.nextInt(6); op >= 0; op--) {
+                ListOps.apply(list, random);
+            }
+            list.endChange();
+
+            merged.check();
+            plain.check();
+        }
+
+        for (List<ObservableListChange> changes : deliveries) {
+            int end = -1;
+            for (ObservableListChange change : changes) {
+                // in order of index, and neither overlapping nor adjacent
+                assertTrue(change.getIndex() > end);
+                end = change.getIndex() + change.getAddedCount();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Assert;
+
+/**
+ * Listens to an {@code ObservableList} and applies each notification to a
+ * copy of it, checking the old elements that are reported along the way, so
+ * that a test can check that the notifications account for every change.
+ */
+class ListMirror implements ObservableListChangeListener {
+    private final ObservableList<?> list;
+    private final List<Object> copy;
+    private final boolean merged;
+    int notifications;
+
+    /**
+     * Creates a mirror that accepts merged changes if {@code merged} is
+     * {@code true}, and otherwise only individual notifications.
+     */
+    ListMirror(ObservableList<?> list, boolean merged) {
+        this.list = list;
+        this.merged = merged;
+        copy = new ArrayList<Object>(list);
+
+        if (merged) {
+            list.addObservableListListener(this);
+        } else {
+            list.addObservableListListener(new ObservableListListener() {
+                public void listElementsAdded(ObservableList l, int index, int length) {
+                    ListMirror.this.listElementsAdded(l, index, length);
+                }
+
+                public void listElementsRemoved(ObservableList l, int index, List oldElements) {
+                    ListMirror.this.listElementsRemoved(l, index, oldElements);
+                }
+
+                public void listElementReplaced(ObservableList l, int index, Object oldElement) {
+                    ListMirror.this.listElementReplaced(l, index, oldElement);
+                }
+
+                public void listElementPropertyChanged(ObservableList l, int index) {
+                    ListMirror.this.listElementPropertyChanged(l, index);
+                }
+            });
+        }
+    }
+
+    void check() {
+        Assert.assertEquals(new ArrayList<Object>(list), copy);
+    }
+
+    public void listElementsAdded(ObservableList l, int index, int length) {
+        notifications++;
+        copy.addAll(index, list.subList(index, index + length));
+    }
+
+    public void listElementsRemoved(ObservableList l, int index, List oldElements) {
+        notifications++;
+        List<Object> range = copy.subList(index, index + oldElements.size());
+        Assert.assertEquals(oldElements, new ArrayList<Object>(range));
+        range.clear();
+    }
+
+    public void listElementReplaced(ObservableList l, int index, Object oldElement) {
+        notifications++;
+        Assert.assertSame(oldElement, copy.set(index, list.get(index)));
+    }
+
+    public void listElementPropertyChanged(ObservableList l, int index) {
+        notifications++;
+        copy.set(index, list.get(index));
+    }
+
+    public void listChanged(ObservableList l, List<ObservableListChange> changes) {
+        Assert.assertTrue("merged change to a mirror that doesn't accept them", merged);
+        notifications++;
+
+        for (ObservableListChange change : changes) {
+            int index = change.getIndex();
+            List<?> removed = change.getRemovedElements();
+            List<Object> range = copy.subList(index, index + removed.size());
+            Assert.assertEquals(removed, new ArrayList<Object>(range));
+            range.clear();
+            copy.addAll(index, list.subList(index, index + change.getAddedCount()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random modifications of a list of small integers, for the list tests.
+ */
+class ListOps {
+    private ListOps() {}
+
+    static void apply(BulkObservableList<Integer> list, Random random) {
+        int size = list.size();
+
+        switch (random.nextInt(7)) {
+            case 0:
+                list.add(random.nextInt(size + 1), random.nextInt(10));
+                break;
+            case 1:
+                List<Integer> added = new ArrayList<Integer>();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    added.add(random.nextInt(10));
+                }
+                list.addAll(random.nextInt(size + 1), added);
+                break;
+            case 2:
+                if (size > 0) {
+                    list.remove(random.nextInt(size));
+                }
+                break;
+            case 3:
+                if (size > 0) {
+                    int from = random.nextInt(size);
+                    list.subList(from, from + random.nextInt(Math.min(4, size - from) + 1)).clear();
+                }
+                break;
+            case 4:
+            case 5:
+                if (size > 0) {
+                    list.set(random.nextInt(size), random.nextInt(10));
+                }
+                break;
+            default:
+                List<Integer> contents = new ArrayList<Integer>(list);
+                if (!contents.isEmpty()) {
+                    contents.remove(random.nextInt(contents.size()));
+                }
+                contents.add(random.nextInt(contents.size() + 1), random.nextInt(10));
+                list.setAll(contents);
+                break;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class MappedListTest extends TestCase {
+
+    private static final ElementMapper<Integer, String> TO_STRING = new ElementMapper<Integer, String>() {
+        public String map(Integer element) {
+            return "#" + element;
+        }
+    };
+
+    private static final ElementMapper<Item, Integer> VALUE = new ElementMapper<Item, Integer>() {
+        public Integer map(Item element) {
+            return element.getValue();
+        }
+    };
+
+    public void testFollowsSource() {
+        Random random = new Random(3);
+
+        for (int round = 0; round < 2; round++) {
+            BulkObservableList<Integer> source = (BulkObservableList<Integer>)
+                    ObservableCollections.observableList(new ArrayList<Integer>());
+            ObservableList<String> view = ObservableCollections.mapped(source, TO_STRING);
+            ListMirror mirror = new ListMirror(view, round == 1);
+
+            for (int step = 0; step < 500; step++) {
+                boolean change = random.nextInt(4) == 0;
+                if (change) {
+                    source.beginChange();
+                }
+
+                for (int op = change ? 3 : 1; op > 0; op--) {
+                    ListOps.apply(source, random);
+                }
+
+                if (change) {
+                    source.endChange();
+                }
+
+                List<String> expected = new ArrayList<String>();
+                for (Integer i : source) {
+                    expected.add(TO_STRING.map(i));
+                }
+                assertEquals(expected, view);
+                mirror.check();
+            }
+        }
+    }
+
+    public void testPropertyChangeRemaps() {
+        Item one = new Item(1);
+        Item two = new Item(2);
+        ObservableList<Item> source = ObservableCollections.observableBeanList(
+                new ArrayList<Item>(Arrays.asList(one, two)));
+        ObservableList<Integer> view = ObservableCollections.mapped(source, VALUE);
+        ListMirror mirror = new ListMirror(view, false);
+
+        two.setValue(7);
+        assertEquals(Arrays.asList(1, 7), view);
+        assertEquals(1, mirror.notifications);
+        mirror.check();
+    }
+
+    public void testDispose() {
+        ObservableList<Integer> source = ObservableCollections.observableList(
+                new ArrayList<Integer>(Arrays.asList(1)));
+        ObservableListView<String> view = ObservableCollections.mapped(source, TO_STRING);
+        ListMirror mirror = new ListMirror(view, false);
+
+        view.dispose();
+        source.add(2);
+        assertEquals(0, mirror.notifications);
+        assertEquals(Arrays.asList("#1"), view);
+    }
+}
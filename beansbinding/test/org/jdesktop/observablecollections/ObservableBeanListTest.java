@@ -0,0 +1,172 @@
+package org.jdesktop.observablecollections;
+
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public class ObservableBeanListTest extends TestCase {
+
+    /**
+     * Records the indices of element property change notifications.
+     */
+    private static final class PropertyRecorder implements ObservableListPropertyListener {
+        final List<Integer> indices = new ArrayList<Integer>();
+        Set<String> propertyNames;
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            fail();
+        }
+
+        public void listElementsPropertyChanged(ObservableList list, int index, int length,
+                                                Set<String> propertyNames) {
+            for (int i = index; i < index + length; i++) {
+                indices.add(i);
+            }
+            this.propertyNames = propertyNames;
+        }
+
+        List<Integer> take() {
+            List<Integer> result = new ArrayList<Integer>(indices);
+            indices.clear();
+            return result;
+        }
+    }
+
+    private static List<Integer> indicesOf(List<Item> list, Item item) {
+        List<Integer> indices = new ArrayList<Integer>();
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    public void testReportsIndexAndProperty() {
+        Item a = new Item(1);
+        Item b = new Item(2);
+        BulkObservableList<Item> list = ObservableCollections.observableBeanList(
+                new ArrayList<Item>(Arrays.asList(a, b)));
+        assertTrue(list.supportsElementPropertyChanged());
+        PropertyRecorder recorder = new PropertyRecorder();
+        list.addObservableListListener(recorder);
+
+        b.setValue(3);
+        assertEquals(Collections.singletonList(1), recorder.take());
+        assertEquals(Collections.singleton("value"), recorder.propertyNames);
+
+        list.add(0, new Item(4));
+        b.setValue(5);
+        assertEquals(Collections.singletonList(2), recorder.take());
+
+        list.remove(b);
+        b.setValue(6);
+        assertTrue(recorder.take().isEmpty());
+    }
+
+    public void testElementInTheListTwice() {
+        Item a = new Item(1);
+        BulkObservableList<Item> list = ObservableCollections.observableBeanList(
+                new ArrayList<Item>(Arrays.asList(a, new Item(2), a)));
+        PropertyRecorder recorder = new PropertyRecorder();
+        list.addObservableListListener(recorder);
+
+        a.setValue(3);
+        assertEquals(Arrays.asList(0, 2), recorder.take());
+
+        // still listened to while one occurrence remains
+        list.remove(0);
+        a.setValue(4);
+        assertEquals(Collections.singletonList(1), recorder.take());
+
+        list.set(1, new Item(5));
+        a.setValue(6);
+        assertTrue(recorder.take().isEmpty());
+    }
+
+    public void testElementOfAnEncapsulatedClass() {
+        // the platform's editor classes may live in packages that aren't
+        // open to reflection; the editor is listened to through the public
+        // PropertyEditor interface instead
+        PropertyEditor editor = PropertyEditorManager.findEditor(Thread.State.class);
+        assertNotNull(editor);
+        BulkObservableList<Object> list = ObservableCollections.observableBeanList(
+                new ArrayList<Object>(Arrays.asList(new Item(1), editor)));
+        PropertyRecorder recorder = new PropertyRecorder();
+        list.addObservableListListener(recorder);
+
+        editor.setValue(Thread.State.RUNNABLE);
+        assertEquals(Collections.singletonList(1), recorder.take());
+
+        list.remove(editor);
+        editor.setValue(Thread.State.BLOCKED);
+        assertTrue(recorder.take().isEmpty());
+    }
+
+    public void testRandomChanges() {
+        Random random = new Random(13);
+        Item[] pool = new Item[8];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Item(i);
+        }
+
+        BulkObservableList<Item> list = ObservableCollections.observableBeanList(new ArrayList<Item>());
+        PropertyRecorder recorder = new PropertyRecorder();
+        list.addObservableListListener(recorder);
+
+        for (int step = 0; step < 3000; step++) {
+            int size = list.size();
+            Item item = pool[random.nextInt(pool.length)];
+
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    list.add(random.nextInt(size + 1), item);
+                    break;
+                case 2:
+                    if (size > 0) {
+                        list.remove(random.nextInt(size));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        list.set(random.nextInt(size), item);
+                    }
+                    break;
+                case 4:
+                    List<Item> contents = new ArrayList<Item>(list);
+                    Collections.shuffle(contents.subList(0, random.nextInt(size + 1)), random);
+                    list.setAll(contents);
+                    break;
+                default:
+                    if (size > 4) {
+                        list.subList(0, 2).clear();
+                    }
+                    break;
+            }
+
+            // several property changes between modifications exercise the
+            // lazily renumbered indices
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                item = pool[random.nextInt(pool.length)];
+                item.setValue(item.getValue() + 1);
+                assertEquals(indicesOf(list, item), recorder.take());
+            }
+        }
+    }
+}
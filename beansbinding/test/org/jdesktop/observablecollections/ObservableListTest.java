@@ -0,0 +1,64 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public class ObservableListTest extends TestCase {
+
+    private static void checkRemoveMatching(List<Integer> backing, Random random) {
+        ObservableList<Integer> list = ObservableCollections.observableList(backing);
+        ListMirror merged = new ListMirror(list, true);
+        ListMirror plain = new ListMirror(list, false);
+
+        for (int round = 0; round < 300; round++) {
+            while (list.size() < 30) {
+                list.add(random.nextInt(list.size() + 1), random.nextInt(10));
+            }
+
+            Set<Integer> values = new HashSet<Integer>();
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                values.add(random.nextInt(10));
+            }
+
+            List<Integer> expected = new ArrayList<Integer>(list);
+            boolean retain = random.nextBoolean();
+            boolean changed = retain ? expected.retainAll(values) : expected.removeAll(values);
+            int notifications = merged.notifications;
+
+            assertEquals(changed, retain ? list.retainAll(values) : list.removeAll(values));
+            assertEquals(expected, list);
+            assertEquals(notifications + (changed ? 1 : 0), merged.notifications);
+            merged.check();
+            plain.check();
+        }
+    }
+
+    public void testRemoveAllAndRetainAll() {
+        checkRemoveMatching(new ArrayList<Integer>(), new Random(37));
+        checkRemoveMatching(new LinkedList<Integer>(), new Random(41));
+    }
+
+    public void testRemoveAllReportsEachRun() {
+        ObservableList<Integer> list = ObservableCollections.observableList(
+                new ArrayList<Integer>(Arrays.asList(1, 0, 0, 2, 0, 3)));
+        final List<Integer> indices = new ArrayList<Integer>();
+        new ListMirror(list, false) {
+            public void listElementsRemoved(ObservableList l, int index, List oldElements) {
+                indices.add(index);
+                indices.add(oldElements.size());
+            }
+        };
+
+        assertTrue(list.removeAll(Arrays.asList(0)));
+        // one removal per run, each at its index once the runs before it
+        // have been removed
+        assertEquals(Arrays.asList(1, 2, 2, 1), indices);
+        assertFalse(list.removeAll(Arrays.asList(0)));
+    }
+}
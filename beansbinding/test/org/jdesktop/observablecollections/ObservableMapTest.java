@@ -0,0 +1,195 @@
+package org.jdesktop.observablecollections;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public class ObservableMapTest extends TestCase {
+
+    /**
+     * Applies each notification to a copy of the map, checking the old
+     * values reported along the way.
+     */
+    private static class MapMirror implements ObservableMapListener {
+        final ObservableMap<?, ?> map;
+        final Map<Object, Object> copy;
+        int notifications;
+
+        MapMirror(ObservableMap<?, ?> map) {
+            this.map = map;
+            copy = new HashMap<Object, Object>(map);
+            map.addObservableMapListener(this);
+        }
+
+        void check() {
+            assertEquals(map, copy);
+        }
+
+        public void mapKeyValueChanged(ObservableMap map, Object key, Object lastValue) {
+            notifications++;
+            assertTrue(copy.containsKey(key));
+            assertSame(copy.put(key, map.get(key)), lastValue);
+        }
+
+        public void mapKeyAdded(ObservableMap map, Object key) {
+            notifications++;
+            assertFalse(copy.containsKey(key));
+            copy.put(key, map.get(key));
+        }
+
+        public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
+            notifications++;
+            assertTrue(copy.containsKey(key));
+            assertSame(copy.remove(key), value);
+        }
+    }
+
+    private static final class ChangeMirror extends MapMirror implements ObservableMapChangeListener {
+        Set<?> keys;
+
+        ChangeMirror(ObservableMap<?, ?> map) {
+            super(map);
+        }
+
+        public void mapChanged(ObservableMap map, Set<?> keys) {
+            notifications++;
+            this.keys = new HashSet<Object>(keys);
+            for (Object key : keys) {
+                if (map.containsKey(key)) {
+                    copy.put(key, map.get(key));
+                } else {
+                    assertTrue(copy.containsKey(key));
+                    copy.remove(key);
+                }
+            }
+        }
+    }
+
+    private BulkObservableMap<String, Integer> map;
+
+    protected void setUp() {
+        Map<String, Integer> contents = new HashMap<String, Integer>();
+        contents.put("a", 1);
+        contents.put("b", 2);
+        contents.put("c", 3);
+        map = (BulkObservableMap<String, Integer>)ObservableCollections.observableMap(contents);
+    }
+
+    private static Set<String> keys(String... keys) {
+        Set<String> set = new HashSet<String>();
+        for (String key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    public void testChangeReportsNetEffect() {
+        MapMirror plain = new MapMirror(map);
+        ChangeMirror changes = new ChangeMirror(map);
+
+        map.beginChange();
+        map.put("a", 10);
+        map.put("a", 11);
+        map.remove("b");
+        map.put("d", 4);
+        assertEquals(0, plain.notifications);
+        assertEquals(0, changes.notifications);
+        map.endChange();
+
+        assertEquals(3, plain.notifications);
+        assertEquals(1, changes.notifications);
+        assertEquals(keys("a", "b", "d"), changes.keys);
+        plain.check();
+        changes.check();
+    }
+
+    public void testRestoredKeysAreLeftOut() {
+        Integer one = map.get("a");
+        MapMirror plain = new MapMirror(map);
+        ChangeMirror changes = new ChangeMirror(map);
+
+        map.beginChange();
+        map.put("a", 10);
+        map.put("a", one);
+        map.put("d", 4);
+        map.remove("d");
+        map.remove("c");
+        map.put("c", new Integer(3));
+        map.endChange();
+
+        // "c" holds an equal value, but not the one it started with
+        assertEquals(keys("c"), changes.keys);
+        assertEquals(1, plain.notifications);
+
+        map.beginChange();
+        map.put("a", 10);
+        map.put("a", one);
+        map.endChange();
+        assertEquals(1, changes.notifications);
+        plain.check();
+        changes.check();
+    }
+
+    public void testNestedChanges() {
+        ChangeMirror changes = new ChangeMirror(map);
+
+        map.beginChange();
+        map.beginChange();
+        map.put("d", 4);
+        map.endChange();
+        assertEquals(0, changes.notifications);
+        map.clear();
+        map.endChange();
+
+        assertEquals(1, changes.notifications);
+        assertEquals(keys("a", "b", "c"), changes.keys);
+        changes.check();
+
+        try {
+            map.endChange();
+            fail();
+        } catch (IllegalStateException ise) {
+        }
+    }
+
+    public void testPutAllAndClearAreOneChange() {
+        ChangeMirror changes = new ChangeMirror(map);
+        Map<String, Integer> more = new HashMap<String, Integer>();
+        more.put("a", 5);
+        more.put("e", 6);
+
+        map.putAll(more);
+        assertEquals(1, changes.notifications);
+        assertEquals(keys("a", "e"), changes.keys);
+
+        map.clear();
+        assertEquals(2, changes.notifications);
+        changes.check();
+    }
+
+    public void testRandomChanges() {
+        Random random = new Random(17);
+        MapMirror plain = new MapMirror(map);
+        ChangeMirror changes = new ChangeMirror(map);
+        String[] keys = {"a", "b", "c", "d", "e", "f"};
+
+        for (int step = 0; step < 1000; step++) {
+            map.beginChange();
+            for (int op = random.nextInt(8); op >= 0; op--) {
+                String key = keys[random.nextInt(keys.length)];
+                if (random.nextInt(3) == 0) {
+                    map.remove(key);
+                } else {
+                    map.put(key, random.nextInt(4));
+                }
+            }
+            map.endChange();
+
+            plain.check();
+            changes.check();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class PagedListTest extends TestCase {
+
+    private static class Loader implements PageLoader<String> {
+        final List<Integer> loaded = new ArrayList<Integer>();
+        boolean fail;
+
+        public int size() {
+            return 23;
+        }
+
+        public List<String> loadPage(int offset, int count) {
+            if (fail) {
+                throw new IllegalStateException("unavailable");
+            }
+
+            loaded.add(offset);
+            List<String> page = new ArrayList<String>();
+            for (int i = offset; i < offset + count; i++) {
+                page.add("e" + i);
+            }
+            return page;
+        }
+    }
+
+    private static class Counter implements ObservableListChangeListener {
+        int replaced;
+        List<ObservableListChange> changes;
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            fail();
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            fail();
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            assertNull(oldElement);
+            replaced++;
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            fail();
+        }
+
+        public void listChanged(ObservableList list, List<ObservableListChange> changes) {
+            this.changes = changes;
+        }
+    }
+
+    private final Loader loader = new Loader();
+    private final QueueExecutor loadExecutor = new QueueExecutor();
+    private final QueueExecutor installExecutor = new QueueExecutor();
+
+    public void testLoadsPageAndNeighbours() {
+        ObservableList<String> list = ObservableCollections.pagedList(
+                loader, 5, 3, loadExecutor, installExecutor);
+        assertEquals(23, list.size());
+
+        assertNull(list.get(7));
+        assertEquals(3, loadExecutor.runAll());
+        assertEquals(3, loader.loaded.size());
+
+        // nothing is visible until the pages are installed
+        assertNull(list.get(7));
+        assertEquals(3, installExecutor.runAll());
+        assertEquals("e7", list.get(7));
+        assertEquals("e0", list.get(0));
+        assertEquals("e14", list.get(14));
+
+        // the last, short page
+        assertNull(list.get(22));
+        loadExecutor.runAll();
+        installExecutor.runAll();
+        assertEquals("e22", list.get(22));
+    }
+
+    public void testNotifiesReplacementOfPlaceholders() {
+        ObservableList<String> list = ObservableCollections.pagedList(
+                loader, 5, 3, loadExecutor, installExecutor);
+        Counter merged = new Counter();
+        final int[] plain = new int[1];
+        list.addObservableListListener(merged);
+        list.addObservableListListener(new ObservableListListener() {
+            public void listElementsAdded(ObservableList list, int index, int length) {
+                fail();
+            }
+
+            public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+                fail();
+            }
+
+            public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+                assertNull(oldElement);
+                plain[0]++;
+            }
+
+            public void listElementPropertyChanged(ObservableList list, int index) {
+                fail();
+            }
+        });
+
+        list.get(0);
+        loadExecutor.runAll();
+        installExecutor.runAll();
+
+        // pages 0 and 1
+        assertEquals(10, plain[0]);
+        assertEquals(0, merged.replaced);
+        assertEquals(1, merged.changes.size());
+        assertEquals(5, merged.changes.get(0).getAddedCount());
+        assertTrue(merged.changes.get(0).isReplacement());
+    }
+
+    public void testEvictsLeastRecentlyUsedPage() {
+        ObservableList<String> list = ObservableCollections.pagedList(
+                loader, 5, 3, loadExecutor, installExecutor);
+
+        list.get(0);
+        loadExecutor.runAll();
+        installExecutor.runAll();
+        list.get(12);
+        loadExecutor.runAll();
+        installExecutor.runAll();
+
+        // pages 1, 2 and 3 are resident now; page 0 was evicted
+        loader.loaded.clear();
+        assertEquals("e12", list.get(12));
+        assertNull(list.get(2));
+        loadExecutor.runAll();
+        assertEquals(0, loader.loaded.get(0).intValue());
+    }
+
+    public void testFailedLoadIsRequestedAgain() {
+        ObservableList<String> list = ObservableCollections.pagedList(
+                loader, 5, 3, loadExecutor, installExecutor);
+
+        loader.fail = true;
+        list.get(0);
+        // pages 0 and 1
+        for (int i = 0; i < 2; i++) {
+            try {
+                loadExecutor.runAll();
+                fail();
+            } catch (IllegalStateException ise) {
+            }
+        }
+
+        // a page is only requested again once the failure is installed
+        list.get(0);
+        assertEquals(0, loadExecutor.size());
+        installExecutor.runAll();
+
+        loader.fail = false;
+        assertNull(list.get(0));
+        loadExecutor.runAll();
+        installExecutor.runAll();
+        assertEquals("e0", list.get(0));
+    }
+}
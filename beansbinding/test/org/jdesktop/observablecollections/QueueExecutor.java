@@ -0,0 +1,38 @@
+package org.jdesktop.observablecollections;
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@code Executor} that queues tasks until the test runs them. Tasks may
+ * be queued from any thread.
+ */
+class QueueExecutor implements Executor {
+    private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+    public synchronized void execute(Runnable command) {
+        tasks.add(command);
+    }
+
+    synchronized int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Runs the queued tasks, including any they queue, returning how many
+     * were run.
+     */
+    int runAll() {
+        int count = 0;
+        Runnable task;
+        while ((task = next()) != null) {
+            task.run();
+            count++;
+        }
+        return count;
+    }
+
+    private synchronized Runnable next() {
+        return tasks.isEmpty() ? null : tasks.removeFirst();
+    }
+}
@@ -0,0 +1,126 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class SortedListTest extends TestCase {
+
+    private static final Comparator<Integer> ASCENDING = new Comparator<Integer>() {
+        public int compare(Integer i1, Integer i2) {
+            return i1.compareTo(i2);
+        }
+    };
+
+    private static final Comparator<Item> BY_VALUE = new Comparator<Item>() {
+        public int compare(Item i1, Item i2) {
+            return i1.getValue() - i2.getValue();
+        }
+    };
+
+    public void testInitialContentsAreStable() {
+        Item a = new Item(2);
+        Item b = new Item(1);
+        Item c = new Item(2);
+        Item d = new Item(1);
+        ObservableList<Item> source = ObservableCollections.observableList(
+                new ArrayList<Item>(Arrays.asList(a, b, c, d)));
+        ObservableList<Item> view = ObservableCollections.sorted(source, BY_VALUE);
+        assertEquals(Arrays.asList(b, d, a, c), view);
+    }
+
+    public void testFollowsSource() {
+        Random random = new Random(2);
+
+        for (int round = 0; round < 2; round++) {
+            BulkObservableList<Integer> source = (BulkObservableList<Integer>)
+                    ObservableCollections.observableList(new ArrayList<Integer>());
+            ObservableList<Integer> view = ObservableCollections.sorted(source, ASCENDING);
+            ListMirror mirror = new ListMirror(view, round == 1);
+
+            for (int step = 0; step < 500; step++) {
+                boolean change = random.nextInt(4) == 0;
+                if (change) {
+                    source.beginChange();
+                }
+
+                for (int op = change ? 3 : 1; op > 0; op--) {
+                    ListOps.apply(source, random);
+                }
+
+                if (change) {
+                    source.endChange();
+                }
+
+                List<Integer> expected = new ArrayList<Integer>(source);
+                Collections.sort(expected);
+                assertEquals(expected, view);
+                mirror.check();
+            }
+        }
+    }
+
+    public void testPropertyChangeMovesElement() {
+        Item one = new Item(1);
+        Item two = new Item(2);
+        Item three = new Item(3);
+        ObservableList<Item> source = ObservableCollections.observableBeanList(
+                new ArrayList<Item>(Arrays.asList(three, one, two)));
+        ObservableList<Item> view = ObservableCollections.sorted(source, BY_VALUE);
+        ListMirror mirror = new ListMirror(view, false);
+
+        one.setValue(5);
+        assertEquals(Arrays.asList(two, three, one), view);
+        three.setValue(4);
+        assertEquals(Arrays.asList(two, three, one), view);
+        mirror.check();
+    }
+
+    // Elements modified in place within a change are out of order until the
+    // change ends, while elements added in the same change must still be
+    // placed by binary insertion.
+    public void testMergedChangeWithElementsModifiedInPlace() {
+        List<Item> items = new ArrayList<Item>();
+        for (int i = 0; i < 6; i++) {
+            items.add(new Item(i * 10));
+        }
+
+        ObservableCollections.ObservableListHelper<Item> helper =
+                ObservableCollections.observableListHelper(items);
+        BulkObservableList<Item> source = (BulkObservableList<Item>)helper.getObservableList();
+        ObservableList<Item> view = ObservableCollections.sorted(source, BY_VALUE);
+        ListMirror mirror = new ListMirror(view, true);
+
+        source.beginChange();
+        source.get(0).setValue(35);
+        helper.fireElementChanged(0);
+        source.add(2, new Item(15));
+        source.get(5).setValue(5);
+        helper.fireElementChanged(5);
+        source.add(new Item(45));
+        source.remove(3);
+        source.endChange();
+
+        List<Item> expected = new ArrayList<Item>(source);
+        Collections.sort(expected, BY_VALUE);
+        assertEquals(expected, view);
+        assertEquals(1, mirror.notifications);
+        mirror.check();
+    }
+
+    public void testDispose() {
+        ObservableList<Integer> source = ObservableCollections.observableList(
+                new ArrayList<Integer>(Arrays.asList(3, 1)));
+        ObservableListView<Integer> view = ObservableCollections.sorted(source, ASCENDING);
+        ListMirror mirror = new ListMirror(view, false);
+
+        view.dispose();
+        source.add(2);
+        assertEquals(0, mirror.notifications);
+        assertEquals(Arrays.asList(1, 3), view);
+    }
+}
@@ -0,0 +1,202 @@
+package org.jdesktop.swingbinding;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.observablecollections.BulkObservableList;
+import org.jdesktop.observablecollections.Item;
+import org.jdesktop.observablecollections.ObservableCollections;
+
+public class JTableBindingTest extends TestCase {
+
+    /**
+     * A bean with a bound {@code items} property.
+     */
+    public static class Holder {
+        private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+        private List<Item> items;
+
+        public Holder(List<Item> items) {
+            this.items = items;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Item> items) {
+            List<Item> old = this.items;
+            this.items = items;
+            support.firePropertyChange("items", old, items);
+        }
+
+        public void addPropertyChangeListener(PropertyChangeListener listener) {
+            support.addPropertyChangeListener(listener);
+        }
+
+        public void removePropertyChangeListener(PropertyChangeListener listener) {
+            support.removePropertyChangeListener(listener);
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static List<Item> items(int... values) {
+        List<Item> items = new ArrayList<Item>();
+        for (int value : values) {
+            items.add(new Item(value));
+        }
+        return items;
+    }
+
+    private static void addValueColumn(JTableBinding<Item, ?, ?> binding) {
+        binding.addColumnBinding(BeanProperty.<Item, Integer>create("value")).setColumnClass(Integer.class);
+    }
+
+    private static void sort(JTable table) {
+        TableRowSorter<?> sorter = (TableRowSorter<?>)table.getRowSorter();
+        sorter.setSortsOnUpdates(true);
+        sorter.setSortKeys(
+                Collections.singletonList(new RowSorter.SortKey(0, SortOrder.ASCENDING)));
+    }
+
+    // checks that the table shows the list's values, in ascending order
+    private static void checkSorted(JTable table, List<Item> list) {
+        assertEquals(list.size(), table.getModel().getRowCount());
+        assertEquals(list.size(), table.getRowCount());
+
+        int last = Integer.MIN_VALUE;
+        for (int row = 0; row < table.getRowCount(); row++) {
+            int index = table.convertRowIndexToModel(row);
+            assertEquals(list.get(index).getValue(), ((Integer)table.getValueAt(row, 0)).intValue());
+            assertTrue(last <= list.get(index).getValue());
+            last = list.get(index).getValue();
+        }
+    }
+
+    public void testReplacedListOnSortedTable() {
+        List<Item> old = items(4, 3, 2, 1);
+        Holder holder = new Holder(old);
+        JTable table = new JTable();
+        table.setAutoCreateRowSorter(true);
+
+        JTableBinding<Item, Holder, JTable> binding = SwingBindings.createJTableBinding(
+                AutoBinding.UpdateStrategy.READ, holder, BeanProperty.<Holder, List<Item>>create("items"), table);
+        addValueColumn(binding);
+        binding.setElementKey(ElementKey.IDENTITY);
+        binding.bind();
+        sort(table);
+        checkSorted(table, old);
+
+        // [A, B, C, D] to [X, A, B]
+        List<Item> now = new ArrayList<Item>(Arrays.asList(new Item(5), old.get(0), old.get(1)));
+        holder.setItems(now);
+        checkSorted(table, now);
+
+        Random random = new Random(19);
+        for (int round = 0; round < 200; round++) {
+            now = new ArrayList<Item>(now);
+            for (int op = random.nextInt(4); op >= 0; op--) {
+                int index = random.nextInt(now.size() + 1);
+                if (index < now.size() && random.nextBoolean()) {
+                    now.remove(index);
+                } else {
+                    now.add(index, new Item(random.nextInt(20)));
+                }
+            }
+            if (now.isEmpty()) {
+                now.add(new Item(0));
+            }
+
+            holder.setItems(now);
+            checkSorted(table, now);
+        }
+    }
+
+    public void testMergedChangesOnSortedTable() {
+        BulkObservableList<Item> list = (BulkObservableList<Item>)ObservableCollections.observableList(
+                items(1, 2, 3, 4, 5));
+        JTable table = new JTable();
+        table.setAutoCreateRowSorter(true);
+
+        JTableBinding<Item, List<Item>, JTable> binding = SwingBindings.createJTableBinding(
+                AutoBinding.UpdateStrategy.READ, (List<Item>)list, table);
+        addValueColumn(binding);
+        binding.bind();
+        sort(table);
+
+        list.beginChange();
+        list.add(0, new Item(0));
+        list.remove(4);
+        list.remove(3);
+        list.endChange();
+        checkSorted(table, list);
+
+        Random random = new Random(23);
+        for (int round = 0; round < 300; round++) {
+            list.beginChange();
+            for (int op = random.nextInt(5); op >= 0; op--) {
+                int index = random.nextInt(list.size() + 1);
+                if (index < list.size() && random.nextInt(3) == 0) {
+                    list.remove(index);
+                } else if (index < list.size() && random.nextBoolean()) {
+                    list.set(index, new Item(random.nextInt(20)));
+                } else {
+                    list.add(index, new Item(random.nextInt(20)));
+                }
+            }
+            list.endChange();
+            checkSorted(table, list);
+        }
+    }
+
+    public void testConcurrentListOnSortedTable() {
+        BulkObservableList<Item> list = ObservableCollections.concurrentList(DIRECT);
+        JTable table = new JTable();
+        table.setAutoCreateRowSorter(true);
+
+        JTableBinding<Item, List<Item>, JTable> binding = SwingBindings.createJTableBinding(
+                AutoBinding.UpdateStrategy.READ, (List<Item>)list, table);
+        addValueColumn(binding);
+        binding.bind();
+        sort(table);
+
+        List<Item> latest = new ArrayList<Item>(items(3, 1, 2));
+        list.setAll(latest);
+
+        Random random = new Random(29);
+        for (int round = 0; round < 300; round++) {
+            list.beginChange();
+            for (int op = random.nextInt(5); op >= 0; op--) {
+                int index = random.nextInt(latest.size() + 1);
+                if (index < latest.size() && random.nextBoolean()) {
+                    latest.remove(index);
+                    list.remove(index);
+                } else {
+                    Item item = new Item(random.nextInt(20));
+                    latest.add(index, item);
+                    list.add(index, item);
+                }
+            }
+            list.endChange();
+            assertEquals(latest, list);
+            checkSorted(table, list);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.jdesktop.swingbinding.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+import org.jdesktop.observablecollections.ObservableCollections;
+import org.jdesktop.swingbinding.ElementKey;
+
+public class ListBindingManagerTest extends TestCase {
+
+    /**
+     * Keeps a copy of the rows, updated from the notifications only, so
+     * that rows that are not reported keep their old element.
+     */
+    private static final class RowMirror extends ListBindingManager {
+        final List<Object> rows = new ArrayList<Object>();
+        int allChanged;
+        int events;
+
+        protected AbstractColumnBinding[] getColBindings() {
+            return new AbstractColumnBinding[0];
+        }
+
+        protected void allChanged() {
+            allChanged++;
+            rows.clear();
+            rows.addAll(getElements());
+        }
+
+        protected void valueChanged(int row, int column) {
+        }
+
+        protected void added(int index, int length) {
+            events++;
+            rows.addAll(index, getElements().subList(index, index + length));
+        }
+
+        protected void removed(int index, int length) {
+            events++;
+            rows.subList(index, index + length).clear();
+        }
+
+        protected void changed(int row) {
+            changed(row, 1);
+        }
+
+        protected void changed(int row, int length) {
+            events++;
+            for (int i = row; i < row + length; i++) {
+                rows.set(i, getElements().get(i));
+            }
+        }
+
+        void check() {
+            List<?> elements = getElements();
+            assertEquals(elements.size(), rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                assertSame(elements.get(i), rows.get(i));
+            }
+        }
+    }
+
+    private static List<Object> strings(String... values) {
+        return new ArrayList<Object>(Arrays.asList(values));
+    }
+
+    public void testReportsOnlyTheDifferences() {
+        List<Object> old = strings("a", "b", "c", "d");
+        RowMirror mirror = new RowMirror();
+        mirror.setElements(old, true);
+
+        List<Object> now = new ArrayList<Object>(old);
+        now.remove(1);
+        now.add(2, "x");
+        mirror.replaceElements(now, ElementKey.IDENTITY);
+
+        assertEquals(1, mirror.allChanged);
+        assertEquals(2, mirror.events);
+        mirror.check();
+    }
+
+    public void testEqualInstancesAreChangedRows() {
+        RowMirror mirror = new RowMirror();
+        mirror.setElements(strings("a", "b", "c"), true);
+
+        List<Object> now = strings("a", "b", "c");
+        now.set(1, new String("b"));
+        mirror.replaceElements(now, ElementKey.EQUALITY);
+
+        // every row is a new instance, reported in one range
+        assertEquals(1, mirror.allChanged);
+        assertEquals(1, mirror.events);
+        mirror.check();
+    }
+
+    public void testFallsBackToAllChanged() {
+        RowMirror mirror = new RowMirror();
+        mirror.setElements(strings("a"), true);
+        mirror.replaceElements(new ArrayList<Object>(), ElementKey.IDENTITY);
+        assertEquals(2, mirror.allChanged);
+        mirror.check();
+
+        // an observable list of the same elements switches listening modes
+        mirror.replaceElements(strings("a"), ElementKey.IDENTITY);
+        mirror.replaceElements(ObservableCollections.observableListHelper(strings("a")).getObservableList(), ElementKey.IDENTITY);
+        assertEquals(4, mirror.allChanged);
+        mirror.check();
+    }
+
+    public void testRandomReplacements() {
+        Random random = new Random(7);
+        Object[] pool = new Object[12];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new String("e" + (i % 8));
+        }
+
+        RowMirror mirror = new RowMirror();
+        mirror.setElements(strings("e0"), true);
+
+        for (int round = 0; round < 500; round++) {
+            List<Object> now = new ArrayList<Object>(mirror.getElements());
+            for (int op = random.nextInt(4); op >= 0; op--) {
+                int index = random.nextInt(now.size() + 1);
+                if (index < now.size() && random.nextBoolean()) {
+                    now.remove(index);
+                } else {
+                    now.add(index, pool[random.nextInt(pool.length)]);
+                }
+            }
+            if (now.isEmpty()) {
+                now.add(pool[0]);
+            }
+
+            int allChanged = mirror.allChanged;
+            mirror.replaceElements(now, random.nextBoolean() ? ElementKey.IDENTITY : ElementKey.EQUALITY);
+            assertEquals(allChanged, mirror.allChanged);
+            mirror.check();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.jdesktop.swingbinding.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class ListDiffTest extends TestCase {
+
+    private static int commonLength(int[] a, int[] b) {
+        int[][] lengths = new int[a.length + 1][b.length + 1];
+        for (int i = a.length - 1; i >= 0; i--) {
+            for (int j = b.length - 1; j >= 0; j--) {
+                lengths[i][j] = a[i] == b[j]
+                        ? lengths[i + 1][j + 1] + 1
+                        : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+        return lengths[0][0];
+    }
+
+    private static void check(int[] a, int[] b, boolean unique) {
+        int[] newToOld = ListDiff.diff(a, b, unique, Integer.MAX_VALUE);
+        assertNotNull(newToOld);
+        assertEquals(b.length, newToOld.length);
+
+        int matched = 0;
+        int last = -1;
+        for (int j = 0; j < b.length; j++) {
+            int i = newToOld[j];
+            if (i == -1) {
+                continue;
+            }
+
+            assertTrue(i > last);
+            assertEquals(a[i], b[j]);
+            last = i;
+            matched++;
+        }
+
+        assertEquals(commonLength(a, b), matched);
+    }
+
+    private static int[] random(Random random, int length, int ids) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextInt(ids);
+        }
+        return result;
+    }
+
+    private static int[] distinct(Random random, int length, int ids) {
+        List<Integer> pool = new ArrayList<Integer>();
+        for (int i = 0; i < ids; i++) {
+            pool.add(i);
+        }
+        Collections.shuffle(pool, random);
+
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = pool.get(i);
+        }
+        return result;
+    }
+
+    public void testEmpty() {
+        check(new int[0], new int[0], true);
+        check(new int[] {1, 2}, new int[0], true);
+        check(new int[0], new int[] {1, 2}, false);
+    }
+
+    public void testPrefixAndSuffix() {
+        int[] newToOld = ListDiff.diff(new int[] {0, 1, 2, 3}, new int[] {0, 4, 3}, true, 10);
+        assertEquals(0, newToOld[0]);
+        assertEquals(-1, newToOld[1]);
+        assertEquals(3, newToOld[2]);
+    }
+
+    public void testUniqueIds() {
+        Random random = new Random(3);
+        for (int round = 0; round < 500; round++) {
+            int ids = 1 + random.nextInt(20);
+            check(distinct(random, random.nextInt(ids + 1), ids),
+                  distinct(random, random.nextInt(ids + 1), ids), true);
+        }
+    }
+
+    public void testRepeatedIds() {
+        Random random = new Random(5);
+        for (int round = 0; round < 500; round++) {
+            int ids = 1 + random.nextInt(5);
+            check(random(random, random.nextInt(15), ids),
+                  random(random, random.nextInt(15), ids), false);
+        }
+    }
+
+    public void testGivesUpBeyondMaxEdits() {
+        int[] a = {0, 0, 1, 1, 0};
+        int[] b = {2, 2, 2, 0, 0};
+        assertNull(ListDiff.diff(a, b, false, 2));
+        assertNotNull(ListDiff.diff(a, b, false, 10));
+    }
+}